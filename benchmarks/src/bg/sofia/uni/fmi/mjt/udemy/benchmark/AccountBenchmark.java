@@ -0,0 +1,167 @@
+package bg.sofia.uni.fmi.mjt.udemy.benchmark;
+
+import bg.sofia.uni.fmi.mjt.udemy.account.AccountBase;
+import bg.sofia.uni.fmi.mjt.udemy.account.BusinessAccount;
+import bg.sofia.uni.fmi.mjt.udemy.account.EducationalAccount;
+import bg.sofia.uni.fmi.mjt.udemy.account.StandartAccount;
+import bg.sofia.uni.fmi.mjt.udemy.account.type.AccountType;
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.Resource;
+import bg.sofia.uni.fmi.mjt.udemy.exception.CourseAlreadyPurchasedException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.CourseNotCompletedException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.CourseNotPurchasedException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.InsufficientBalanceException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.MaxCourseCapacityReachedException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.ResourceNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Purchase and completion flows of {@link AccountBase} for every account type,
+ * single-threaded and with {@value #CONTENDING_THREADS} threads sharing a small pool of accounts.
+ * Sampled latency gives the p99 under contention; {@link BenchmarkRunner} adds allocation per operation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountBenchmark {
+    private static final long SEED = 42;
+    private static final int CATALOG_SIZE = 100_000;
+    private static final int SHARED_ACCOUNTS = 4;
+    private static final int CONTENDING_THREADS = 8;
+    private static final double UNLIMITED_BALANCE = Double.MAX_VALUE / 2;
+    private static final double GRADE = 5.5;
+
+    @Param({"STANDARD", "EDUCATION", "BUSINESS"})
+    private AccountType accountType;
+
+    private Course[] catalog;
+    private AccountBase enrolled;
+    private AtomicReferenceArray<AccountBase> shared;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        catalog = CatalogGenerator.courses(CATALOG_SIZE, SEED);
+
+        enrolled = newAccount("enrolled");
+        Course[] owned = new Course[enrolled.getMaxCapacity()];
+        System.arraycopy(catalog, 0, owned, 0, owned.length);
+        enrolled.buyCourses(owned);
+        for (int i = 0; i < owned.length; i += 2) {
+            enrolled.completeResourcesFromCourse(owned[i], new Resource[] {owned[i].getContent()[0]});
+        }
+
+        shared = new AtomicReferenceArray<>(SHARED_ACCOUNTS);
+        for (int i = 0; i < SHARED_ACCOUNTS; i++) {
+            shared.set(i, newAccount("shared" + i));
+        }
+    }
+
+    private AccountBase newAccount(String username) {
+        return switch (accountType) {
+            case STANDARD -> new StandartAccount(username, UNLIMITED_BALANCE);
+            case EDUCATION -> new EducationalAccount(username, UNLIMITED_BALANCE);
+            case BUSINESS -> new BusinessAccount(username, UNLIMITED_BALANCE, Category.values());
+        };
+    }
+
+    /**
+     * A private account per thread which is replaced by a fresh one whenever it fills up,
+     * so every purchase succeeds and costs the same.
+     */
+    @State(Scope.Thread)
+    public static class Buyer {
+        private AccountBase account;
+        private int next;
+
+        AccountBase account(AccountBenchmark benchmark) {
+            if (account == null || next == account.getMaxCapacity()) {
+                account = benchmark.newAccount("buyer");
+                next = 0;
+            }
+
+            return account;
+        }
+    }
+
+    @Benchmark
+    public AccountBase buyCourse(Buyer buyer)
+        throws InsufficientBalanceException, CourseAlreadyPurchasedException, MaxCourseCapacityReachedException {
+        AccountBase account = buyer.account(this);
+        account.buyCourse(catalog[buyer.next++]);
+        return account;
+    }
+
+    @Benchmark
+    public AccountBase completeResourcesFromCourse() throws CourseNotPurchasedException, ResourceNotFoundException {
+        Course course = catalog[ThreadLocalRandom.current().nextInt(enrolled.getMaxCapacity())];
+        enrolled.completeResourcesFromCourse(course, course.getContent());
+        return enrolled;
+    }
+
+    @Benchmark
+    public AccountBase completeCourse()
+        throws CourseNotPurchasedException, CourseNotCompletedException, ResourceNotFoundException {
+        enrolled.completeCourse(catalog[ThreadLocalRandom.current().nextInt(enrolled.getMaxCapacity())], GRADE);
+        return enrolled;
+    }
+
+    @Benchmark
+    public Course getLeastCompletedCourse() {
+        return enrolled.getLeastCompletedCourse();
+    }
+
+    /**
+     * Random purchases against a few shared accounts. Repeated purchases fail with an exception,
+     * which is part of the measured cost; a full account is swapped for a fresh one.
+     */
+    @Benchmark
+    @Threads(CONTENDING_THREADS)
+    public Object buyCourseContended() throws InsufficientBalanceException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int slot = random.nextInt(SHARED_ACCOUNTS);
+        AccountBase account = shared.get(slot);
+
+        try {
+            account.buyCourse(catalog[random.nextInt(CATALOG_SIZE)]);
+            return account;
+        } catch (CourseAlreadyPurchasedException e) {
+            return e;
+        } catch (MaxCourseCapacityReachedException e) {
+            shared.compareAndSet(slot, account, newAccount("shared" + slot));
+            return e;
+        }
+    }
+
+    @Benchmark
+    @Threads(CONTENDING_THREADS)
+    public AccountBase completeResourcesFromCourseContended()
+        throws CourseNotPurchasedException, ResourceNotFoundException {
+        return completeResourcesFromCourse();
+    }
+
+    @Benchmark
+    @Threads(CONTENDING_THREADS)
+    public Course getLeastCompletedCourseContended() {
+        return enrolled.getLeastCompletedCourse();
+    }
+}
@@ -0,0 +1,94 @@
+package bg.sofia.uni.fmi.mjt.udemy.benchmark;
+
+import bg.sofia.uni.fmi.mjt.udemy.account.AccountBase;
+import bg.sofia.uni.fmi.mjt.udemy.account.BusinessAccount;
+import bg.sofia.uni.fmi.mjt.udemy.account.EducationalAccount;
+import bg.sofia.uni.fmi.mjt.udemy.account.StandartAccount;
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.Resource;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.ResourceDuration;
+
+import java.util.Random;
+
+/**
+ * Builds deterministic synthetic catalogs and accounts for the benchmarks.
+ * Courses draw their content from a small pool of resource arrays, so large catalogs stay affordable.
+ */
+public final class CatalogGenerator {
+    public static final String[] WORDS = {
+        "java", "python", "design", "marketing", "finance", "guitar", "fitness", "cloud", "data", "security",
+        "spring", "kotlin", "excel", "photoshop", "branding", "yoga", "piano", "startup", "sql", "testing"
+    };
+
+    private static final int RESOURCE_POOL_SIZE = 256;
+    private static final int MAX_RESOURCES_PER_COURSE = 4;
+    private static final int MAX_RESOURCE_MINUTES = 60;
+    private static final int DESCRIPTION_WORDS = 8;
+    private static final double MAX_PRICE = 200.0;
+
+    private CatalogGenerator() {
+    }
+
+    public static String courseName(int id) {
+        return "Course %d %s".formatted(id, WORDS[id % WORDS.length]);
+    }
+
+    public static String username(int id) {
+        return "user" + id;
+    }
+
+    public static Course[] courses(int count, long seed) {
+        Random random = new Random(seed);
+        Resource[][] contentPool = resourcePool(random);
+        Category[] categories = Category.values();
+
+        Course[] courses = new Course[count];
+        for (int id = 0; id < count; id++) {
+            StringBuilder description = new StringBuilder();
+            for (int word = 0; word < DESCRIPTION_WORDS; word++) {
+                description.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+
+            courses[id] = new Course(courseName(id), description.toString().trim(),
+                Math.round(random.nextDouble() * MAX_PRICE * 100) / 100.0,
+                contentPool[random.nextInt(contentPool.length)],
+                categories[random.nextInt(categories.length)]);
+        }
+
+        return courses;
+    }
+
+    public static AccountBase[] accounts(int count, double balance) {
+        AccountBase[] accounts = new AccountBase[count];
+        for (int id = 0; id < count; id++) {
+            accounts[id] = account(id, balance);
+        }
+
+        return accounts;
+    }
+
+    /**
+     * Cycles through the three account types, so every type is equally represented.
+     */
+    public static AccountBase account(int id, double balance) {
+        return switch (id % 3) {
+            case 0 -> new StandartAccount(username(id), balance);
+            case 1 -> new EducationalAccount(username(id), balance);
+            default -> new BusinessAccount(username(id), balance, Category.values());
+        };
+    }
+
+    private static Resource[][] resourcePool(Random random) {
+        Resource[][] pool = new Resource[RESOURCE_POOL_SIZE][];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = new Resource[1 + random.nextInt(MAX_RESOURCES_PER_COURSE)];
+            for (int j = 0; j < pool[i].length; j++) {
+                pool[i][j] = new Resource("Lesson %d.%d".formatted(i, j),
+                    new ResourceDuration(1 + random.nextInt(MAX_RESOURCE_MINUTES)));
+            }
+        }
+
+        return pool;
+    }
+}
@@ -0,0 +1,118 @@
+package bg.sofia.uni.fmi.mjt.udemy.benchmark;
+
+import bg.sofia.uni.fmi.mjt.udemy.LearningPlatform;
+import bg.sofia.uni.fmi.mjt.udemy.Udemy;
+import bg.sofia.uni.fmi.mjt.udemy.account.AccountBase;
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.CourseDuration;
+import bg.sofia.uni.fmi.mjt.udemy.index.CourseColumns;
+import bg.sofia.uni.fmi.mjt.udemy.query.CoursePage;
+import bg.sofia.uni.fmi.mjt.udemy.query.CourseQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filters the whole catalog on category, price and duration: by dereferencing every course, over
+ * {@link CourseColumns}, and through {@link LearningPlatform#search}, which scans the columns when no criterion
+ * is selective. With shuffled allocation, neighbouring ids do not live next to each other on the heap, as in a
+ * catalog that has been changing for a while. With vectorScans, the column scans use the Vector API when the
+ * optional {@code vector} module is on the class path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g", "--add-modules=jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class ColumnarScanBenchmark {
+    private static final long SEED = 42;
+    private static final double MIN_PRICE = 20.0;
+    private static final double MAX_PRICE = 120.0;
+    private static final CourseDuration MAX_DURATION = new CourseDuration(2, 0);
+    private static final Category[] CATEGORIES = {Category.DEVELOPMENT, Category.DESIGN, Category.MUSIC};
+
+    @Param({"1000000", "4000000"})
+    private int catalogSize;
+
+    @Param({"false", "true"})
+    private boolean shuffledAllocation;
+
+    @Param({"false", "true"})
+    private String vectorScans;
+
+    private Course[] courses;
+    private CourseColumns columns;
+    private int categoryMask;
+    private LearningPlatform platform;
+    private CourseQuery query;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Read once when CourseColumns is initialized; every parameter combination runs in its own fork.
+        System.setProperty("udemy.vectorScans", vectorScans);
+        courses = CatalogGenerator.courses(catalogSize, SEED);
+        if (shuffledAllocation) {
+            Collections.shuffle(Arrays.asList(courses), new Random(SEED));
+        }
+
+        columns = new CourseColumns();
+        for (int id = 0; id < catalogSize; id++) {
+            columns.set(id, courses[id]);
+        }
+
+        if (Boolean.parseBoolean(vectorScans) && !CourseColumns.isScanVectorized()) {
+            throw new IllegalStateException("Vector API scans are not available in this JVM.");
+        }
+
+        query = CourseQuery.all()
+            .withCategories(CATEGORIES)
+            .withPriceBetween(MIN_PRICE, MAX_PRICE)
+            .withMaxDuration(MAX_DURATION)
+            .withLimit(20);
+        categoryMask = CourseColumns.maskOf(query.categories());
+        platform = new Udemy(new AccountBase[0], courses);
+    }
+
+    @Benchmark
+    public int[] scanCourses() {
+        int maxMinutes = MAX_DURATION.toMinutes();
+        int[] matching = new int[courses.length];
+        int count = 0;
+
+        for (int id = 0; id < courses.length; id++) {
+            Course course = courses[id];
+            if (query.categories().contains(course.getCategory()) && course.getPrice() >= MIN_PRICE &&
+                course.getPrice() <= MAX_PRICE && course.getTotalTime().toMinutes() <= maxMinutes) {
+                matching[count++] = id;
+            }
+        }
+
+        return Arrays.copyOf(matching, count);
+    }
+
+    @Benchmark
+    public int[] scanColumns() {
+        return columns.scan(categoryMask, MIN_PRICE, MAX_PRICE, 0, MAX_DURATION.toMinutes());
+    }
+
+    @Benchmark
+    public CoursePage search() {
+        return platform.search(query);
+    }
+}
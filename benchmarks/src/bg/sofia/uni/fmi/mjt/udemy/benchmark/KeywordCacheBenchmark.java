@@ -0,0 +1,129 @@
+package bg.sofia.uni.fmi.mjt.udemy.benchmark;
+
+import bg.sofia.uni.fmi.mjt.udemy.Udemy;
+import bg.sofia.uni.fmi.mjt.udemy.account.AccountBase;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.exception.CourseNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Udemy#findByKeyword(String)} under a skewed workload, where a few keywords make up most lookups, with the
+ * keyword cache disabled and enabled, alone and while another thread reprices courses.
+ * The cache counters are printed after every trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class KeywordCacheBenchmark {
+    private static final long SEED = 42;
+    private static final int QUERY_COUNT = 4096;
+    private static final int MIN_KEYWORD_LENGTH = 4;
+    private static final double SKEW = 1.1;
+
+    @Param({"100000", "1000000"})
+    private int catalogSize;
+
+    @Param({"0", "16777216"})
+    private long keywordCacheWeight;
+
+    private Udemy platform;
+    private String[] keywords;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        platform = new Udemy(new AccountBase[0], CatalogGenerator.courses(catalogSize, SEED));
+        platform.setKeywordCacheWeight(keywordCacheWeight);
+
+        // Every part of at least four letters of a catalog word, in random order of popularity.
+        Set<String> parts = new LinkedHashSet<>();
+        for (String word : CatalogGenerator.WORDS) {
+            for (int start = 0; start < word.length(); start++) {
+                for (int end = start + MIN_KEYWORD_LENGTH; end <= word.length(); end++) {
+                    parts.add(word.substring(start, end));
+                }
+            }
+        }
+
+        Random random = new Random(SEED);
+        List<String> distinct = new ArrayList<>(parts);
+        Collections.shuffle(distinct, random);
+
+        double[] cumulative = new double[distinct.size()];
+        double total = 0;
+        for (int rank = 0; rank < cumulative.length; rank++) {
+            total += 1 / Math.pow(rank + 1, SKEW);
+            cumulative[rank] = total;
+        }
+
+        keywords = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            double point = random.nextDouble() * total;
+            int rank = 0;
+            while (cumulative[rank] < point) {
+                rank++;
+            }
+
+            keywords[i] = distinct.get(rank);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void printStats() {
+        System.out.println(platform.getKeywordCacheStats());
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next() {
+            next = (next + 1) & (QUERY_COUNT - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    public Course[] findByKeyword(Cursor cursor) {
+        return platform.findByKeyword(keywords[cursor.next()]);
+    }
+
+    @Benchmark
+    @Group("repricing")
+    @GroupThreads(3)
+    public Course[] findByKeywordWhileRepricing(Cursor cursor) {
+        return platform.findByKeyword(keywords[cursor.next()]);
+    }
+
+    @Benchmark
+    @Group("repricing")
+    @GroupThreads(1)
+    public Course updatePrice(Cursor cursor) throws CourseNotFoundException {
+        int id = (int) ((long) cursor.next() * catalogSize / QUERY_COUNT);
+        return platform.updatePrice(CatalogGenerator.courseName(id), cursor.next() % 200);
+    }
+}
@@ -0,0 +1,157 @@
+package bg.sofia.uni.fmi.mjt.udemy.benchmark;
+
+import bg.sofia.uni.fmi.mjt.udemy.LearningPlatform;
+import bg.sofia.uni.fmi.mjt.udemy.Udemy;
+import bg.sofia.uni.fmi.mjt.udemy.account.Account;
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.exception.AccountNotFoundException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.CourseNotFoundException;
+import bg.sofia.uni.fmi.mjt.udemy.query.CourseOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of every {@link LearningPlatform} query over synthetic catalogs.
+ * Run through {@link BenchmarkRunner} to also get the allocation rate per operation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class LearningPlatformBenchmark {
+    private static final long SEED = 42;
+    private static final int MAX_ACCOUNTS = 1_000_000;
+    private static final int QUERY_COUNT = 1024;
+    private static final String MISSING_KEYWORD = "blockchain";
+    private static final int COMPLETION_LIMIT = 10;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private int catalogSize;
+
+    private LearningPlatform platform;
+    private String[] names;
+    private String[] keywords;
+    private String[] prefixes;
+    private String[] misspelledNames;
+    private String[] misspelledKeywords;
+    private String[] usernames;
+    private Category[] categories;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Course[] courses = CatalogGenerator.courses(catalogSize, SEED);
+        int accountCount = Math.min(catalogSize, MAX_ACCOUNTS);
+        platform = new Udemy(CatalogGenerator.accounts(accountCount, 0), courses);
+
+        names = new String[QUERY_COUNT];
+        keywords = new String[QUERY_COUNT];
+        prefixes = new String[QUERY_COUNT];
+        misspelledNames = new String[QUERY_COUNT];
+        misspelledKeywords = new String[QUERY_COUNT];
+        usernames = new String[QUERY_COUNT];
+        categories = new Category[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            names[i] = CatalogGenerator.courseName((int) ((long) i * catalogSize / QUERY_COUNT));
+            keywords[i] = i % 8 == 0 ? MISSING_KEYWORD : CatalogGenerator.WORDS[i % CatalogGenerator.WORDS.length];
+            // "Course " and up to three digits: from every course down to a few hundred of them in large catalogs.
+            prefixes[i] = names[i].substring(0, Math.min(names[i].length(), "Course ".length() + i % 4));
+            misspelledNames[i] = misspell(names[i], i);
+            misspelledKeywords[i] = misspell(CatalogGenerator.WORDS[i % CatalogGenerator.WORDS.length], i);
+            usernames[i] = CatalogGenerator.username((int) ((long) i * accountCount / QUERY_COUNT));
+            categories[i] = Category.values()[i % Category.values().length];
+        }
+    }
+
+    /**
+     * Drops one character of the text and doubles another, an edit distance of two.
+     */
+    private static String misspell(String text, int seed) {
+        int dropped = seed % text.length();
+        int doubled = (dropped + text.length() / 2) % text.length();
+        StringBuilder misspelled = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            if (i != dropped) {
+                misspelled.append(text.charAt(i));
+            }
+
+            if (i == doubled) {
+                misspelled.append(text.charAt(i));
+            }
+        }
+
+        return misspelled.toString();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next() {
+            next = (next + 1) & (QUERY_COUNT - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    public Course findByName(Cursor cursor) throws CourseNotFoundException {
+        return platform.findByName(names[cursor.next()]);
+    }
+
+    @Benchmark
+    public Course[] completeName(Cursor cursor) {
+        int next = cursor.next();
+        return platform.completeName(prefixes[next], CourseOrder.values()[next % CourseOrder.values().length],
+            COMPLETION_LIMIT);
+    }
+
+    @Benchmark
+    public Course[] findBySimilarName(Cursor cursor) {
+        return platform.findBySimilarName(misspelledNames[cursor.next()], Udemy.MAX_EDIT_DISTANCE, COMPLETION_LIMIT);
+    }
+
+    @Benchmark
+    public String[] suggestKeywords(Cursor cursor) {
+        return platform.suggestKeywords(misspelledKeywords[cursor.next()], Udemy.MAX_EDIT_DISTANCE,
+            COMPLETION_LIMIT);
+    }
+
+    @Benchmark
+    public Course[] findByKeyword(Cursor cursor) {
+        return platform.findByKeyword(keywords[cursor.next()]);
+    }
+
+    @Benchmark
+    public Course[] getAllCoursesByCategory(Cursor cursor) {
+        return platform.getAllCoursesByCategory(categories[cursor.next()]);
+    }
+
+    @Benchmark
+    public Course getCheapestByCategory(Cursor cursor) {
+        return platform.getCheapestByCategory(categories[cursor.next()]);
+    }
+
+    @Benchmark
+    public Course getLongestCourse() {
+        return platform.getLongestCourse();
+    }
+
+    @Benchmark
+    public Account getAccount(Cursor cursor) throws AccountNotFoundException {
+        return platform.getAccount(usernames[cursor.next()]);
+    }
+}
@@ -0,0 +1,34 @@
+package bg.sofia.uni.fmi.mjt.udemy;
+
+import bg.sofia.uni.fmi.mjt.udemy.account.AccountBase;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+
+/**
+ * Receives every change of a {@link Udemy} platform's catalog and account set, ahead of it: the methods are called
+ * once the change has been validated and before its version is published, and a listener which throws prevents
+ * the change. The methods are called while the platform's write lock is held, so changes arrive in the order they
+ * are published; implementations should return quickly and must not change the platform.
+ */
+public interface CatalogEventListener {
+
+    /**
+     * Called before the courses are appended to the catalog, by {@link Udemy#addCourse(Course)} or
+     * {@link Udemy#addCourses(Course[])}.
+     */
+    void onCoursesAdded(Course[] courses);
+
+    /**
+     * Called before the course with the given name is removed from the catalog.
+     */
+    void onCourseRemoved(String name);
+
+    /**
+     * Called before the course with the given name is repriced.
+     */
+    void onPriceUpdated(String name, double newPrice);
+
+    /**
+     * Called before the account is added to the platform, while the account's lock is held as well.
+     */
+    void onAccountAdded(AccountBase account);
+}
@@ -0,0 +1,521 @@
+package bg.sofia.uni.fmi.mjt.udemy;
+
+import bg.sofia.uni.fmi.mjt.udemy.account.AccountBase;
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.CourseDuration;
+import bg.sofia.uni.fmi.mjt.udemy.exception.AccountNotFoundException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.CourseNotFoundException;
+import bg.sofia.uni.fmi.mjt.udemy.index.CategoryIndex;
+import bg.sofia.uni.fmi.mjt.udemy.index.ChunkedArray;
+import bg.sofia.uni.fmi.mjt.udemy.index.CourseColumns;
+import bg.sofia.uni.fmi.mjt.udemy.index.DurationIndex;
+import bg.sofia.uni.fmi.mjt.udemy.index.KeywordCache;
+import bg.sofia.uni.fmi.mjt.udemy.index.KeywordIndex;
+import bg.sofia.uni.fmi.mjt.udemy.index.NameIndex;
+import bg.sofia.uni.fmi.mjt.udemy.index.ParallelScan;
+import bg.sofia.uni.fmi.mjt.udemy.index.PersistentSortedMap;
+import bg.sofia.uni.fmi.mjt.udemy.index.TermIndex;
+import bg.sofia.uni.fmi.mjt.udemy.query.CourseOrder;
+import bg.sofia.uni.fmi.mjt.udemy.query.CoursePage;
+import bg.sofia.uni.fmi.mjt.udemy.query.CourseQuery;
+import bg.sofia.uni.fmi.mjt.udemy.query.PageCursor;
+import bg.sofia.uni.fmi.mjt.udemy.query.TopK;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * One version of the catalog and accounts of a {@link Udemy} platform, with its indexes.
+ * A snapshot never changes once published, so any number of threads may query it without locking and
+ * all of their answers are consistent with each other.
+ * Every course gets an id, its position in the catalog; removed courses leave an empty slot behind, so ids are
+ * never reused.
+ * The next version starts as a copy that shares every structure of this one: the course and account tables
+ * are {@link ChunkedArray}s and the name maps and indexes are built on {@link PersistentSortedMap}s, so a copy
+ * is made in O(1) and a change copies only the chunks and the O(log n) tree nodes it touches.
+ * Scans over catalogs of at least {@link #getParallelThreshold()} courses are split across the common
+ * fork-join pool and return the same results, in the same order, as the sequential scans.
+ */
+public final class CatalogSnapshot implements LearningPlatform {
+    private static final Pattern KEYWORD_PATTERN = Pattern.compile("^[a-zA-Z]+$");
+
+    private final long version;
+    private int parallelThreshold;
+
+    private final ChunkedArray<AccountBase> accounts;
+    private int accountCount;
+    private final PersistentSortedMap<String, AccountBase> accountsByUsername;
+
+    private final ChunkedArray<Course> courses;
+    private int courseCount;
+    private int liveCourseCount;
+    private final PersistentSortedMap<String, Integer> courseIdsByName;
+    private final PersistentSortedMap<String, Integer> shadowedCounts;
+    private final KeywordIndex keywordIndex;
+    private final CategoryIndex categoryIndex;
+    private final DurationIndex durationIndex;
+    private final NameIndex nameIndex;
+    private final TermIndex termIndex;
+    private final CourseColumns columns;
+
+    CatalogSnapshot(AccountBase[] accounts, Course[] courses, KeywordCache keywordCache) {
+        this.version = 0;
+        this.parallelThreshold = Udemy.NEVER_PARALLEL;
+        this.accounts = new ChunkedArray<>();
+        this.accountCount = 0;
+        this.accountsByUsername = new PersistentSortedMap<>(Comparator.naturalOrder());
+        this.courses = new ChunkedArray<>();
+        this.courseCount = 0;
+        this.liveCourseCount = 0;
+        this.courseIdsByName = new PersistentSortedMap<>(Comparator.naturalOrder());
+        this.shadowedCounts = new PersistentSortedMap<>(Comparator.naturalOrder());
+        this.keywordIndex = new KeywordIndex(keywordCache);
+        this.categoryIndex = new CategoryIndex();
+        this.durationIndex = new DurationIndex();
+        this.nameIndex = new NameIndex();
+        this.termIndex = new TermIndex();
+        this.columns = new CourseColumns();
+
+        for (Course course : courses) {
+            this.courses.set(courseCount, course);
+            indexCourse(courseCount, course);
+            courseCount++;
+        }
+
+        for (AccountBase account : accounts) {
+            this.accounts.set(accountCount++, account);
+            indexAccount(account);
+        }
+    }
+
+    /**
+     * Starts the version following the given one. The new version may be changed until it is published.
+     */
+    CatalogSnapshot(CatalogSnapshot previous) {
+        this.version = previous.version + 1;
+        this.parallelThreshold = previous.parallelThreshold;
+        this.accounts = new ChunkedArray<>(previous.accounts);
+        this.accountCount = previous.accountCount;
+        this.accountsByUsername = new PersistentSortedMap<>(previous.accountsByUsername);
+        this.courses = new ChunkedArray<>(previous.courses);
+        this.courseCount = previous.courseCount;
+        this.liveCourseCount = previous.liveCourseCount;
+        this.courseIdsByName = new PersistentSortedMap<>(previous.courseIdsByName);
+        this.shadowedCounts = new PersistentSortedMap<>(previous.shadowedCounts);
+        this.keywordIndex = new KeywordIndex(previous.keywordIndex);
+        this.categoryIndex = new CategoryIndex(previous.categoryIndex);
+        this.durationIndex = new DurationIndex(previous.durationIndex);
+        this.nameIndex = new NameIndex(previous.nameIndex);
+        this.termIndex = new TermIndex(previous.termIndex);
+        this.columns = new CourseColumns(previous.columns);
+    }
+
+    /**
+     * Returns the number of versions published before this one.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the catalog size from which scans run in parallel.
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    private boolean isParallel() {
+        return courseCount >= parallelThreshold;
+    }
+
+    /**
+     * Appends the courses, checking the whole batch before adding any of them.
+     *
+     * @throws IllegalArgumentException if one of the courses or a course name is null, or a name is already taken,
+     *                                  by the catalog or by an earlier course of the batch.
+     */
+    void addCourses(Course[] batch) {
+        Set<String> names = new HashSet<>();
+        for (Course course : batch) {
+            if (course == null || course.getName() == null) {
+                throw new IllegalArgumentException("Course and its name can't be null.");
+            }
+
+            if (courseIdsByName.containsKey(course.getName()) || !names.add(course.getName())) {
+                throw new IllegalArgumentException("Course with name %s already exists.".formatted(course.getName()));
+            }
+        }
+
+        for (Course course : batch) {
+            courses.set(courseCount, course);
+            indexCourse(courseCount, course);
+            courseCount++;
+        }
+    }
+
+    void addCourse(Course course) {
+        addCourses(new Course[] {course});
+    }
+
+    Course removeCourse(String name) throws CourseNotFoundException {
+        int id = courseId(name);
+
+        Course course = courses.get(id);
+        courses.set(id, null);
+        unindexCourse(id, course);
+        return course;
+    }
+
+    Course updatePrice(String name, double newPrice) throws CourseNotFoundException {
+        int id = courseId(name);
+
+        Course repriced = courses.get(id).withPrice(newPrice);
+        courses.set(id, repriced);
+
+        if (repriced.getCategory() != null) {
+            categoryIndex.add(id, repriced);
+        }
+        durationIndex.add(id, repriced);
+        nameIndex.add(id, repriced);
+        columns.set(id, repriced);
+
+        return repriced;
+    }
+
+    void addAccount(AccountBase account) {
+        if (accountsByUsername.containsKey(account.getUsername())) {
+            throw new IllegalArgumentException(
+                "Account with username %s already exists.".formatted(account.getUsername()));
+        }
+
+        accounts.set(accountCount++, account);
+        indexAccount(account);
+    }
+
+    private int courseId(String name) throws CourseNotFoundException {
+        Integer id = courseIdsByName.get(name);
+        if (id == null) {
+            throw new CourseNotFoundException("No course with name %s in this Udemy".formatted(name));
+        }
+
+        return id;
+    }
+
+    /**
+     * Registers the course, stored at the given position, in the name, keyword, category and duration indexes.
+     * If two courses share a name, the first one wins, as it would with a linear scan.
+     */
+    private void indexCourse(int id, Course course) {
+        columns.set(id, course);
+        if (course == null) {
+            return;
+        }
+
+        liveCourseCount++;
+        if (course.getCategory() != null) {
+            categoryIndex.add(id, course);
+        }
+
+        durationIndex.add(id, course);
+
+        if (course.getName() == null) {
+            return;
+        }
+
+        nameIndex.add(id, course);
+        if (!courseIdsByName.containsKey(course.getName())) {
+            courseIdsByName.put(course.getName(), id);
+        } else {
+            Integer shadowed = shadowedCounts.get(course.getName());
+            shadowedCounts.put(course.getName(), shadowed == null ? 1 : shadowed + 1);
+        }
+
+        if (course.getDescription() != null) {
+            keywordIndex.add(id, course);
+            termIndex.add(course);
+        }
+    }
+
+    /**
+     * Removes the course, formerly stored at the given position, from every index.
+     * If another course with the same name was shadowed by it, that course becomes the one found by name.
+     */
+    private void unindexCourse(int id, Course course) {
+        liveCourseCount--;
+        columns.clear(id);
+        if (course.getCategory() != null) {
+            categoryIndex.remove(id, course);
+        }
+
+        durationIndex.remove(id);
+        nameIndex.remove(id, course);
+
+        if (course.getDescription() != null) {
+            keywordIndex.remove(id, course);
+            termIndex.remove(course);
+        }
+
+        Integer shadowed = shadowedCounts.get(course.getName());
+        if (shadowed == null) {
+            courseIdsByName.remove(course.getName());
+            return;
+        }
+
+        if (shadowed == 1) {
+            shadowedCounts.remove(course.getName());
+        } else {
+            shadowedCounts.put(course.getName(), shadowed - 1);
+        }
+
+        exposeShadowed(id, course.getName());
+    }
+
+    /**
+     * Makes the first course with the name after the removed one the one found by name. Only names which appear
+     * more than once in the initial catalog are shadowed, as later courses must have names not taken yet.
+     */
+    private void exposeShadowed(int removedId, String name) {
+        for (int id = removedId + 1; id < courseCount; id++) {
+            Course course = courses.get(id);
+            if (course != null && name.equals(course.getName())) {
+                courseIdsByName.put(name, id);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Registers the account in the username index.
+     * If two accounts share a username, the first one wins, as it would with a linear scan.
+     */
+    private void indexAccount(AccountBase account) {
+        if (account == null || account.getUsername() == null) {
+            return;
+        }
+
+        if (!accountsByUsername.containsKey(account.getUsername())) {
+            accountsByUsername.put(account.getUsername(), account);
+        }
+    }
+
+    /**
+     * Returns all courses of the snapshot in catalog order.
+     */
+    public Course[] getAllCourses() {
+        if (isParallel()) {
+            return ParallelScan.compact(courses::get, courseCount, Course[]::new);
+        }
+
+        return IntStream.range(0, courseCount).mapToObj(courses::get).filter(Objects::nonNull)
+            .toArray(Course[]::new);
+    }
+
+    /**
+     * Returns all accounts of the snapshot.
+     */
+    public AccountBase[] getAllAccounts() {
+        if (accountCount >= parallelThreshold) {
+            return ParallelScan.compact(accounts::get, accountCount, AccountBase[]::new);
+        }
+
+        return IntStream.range(0, accountCount).mapToObj(accounts::get).filter(Objects::nonNull)
+            .toArray(AccountBase[]::new);
+    }
+
+    @Override
+    public Course findByName(String name) throws CourseNotFoundException {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Course name you are trying to find is blank.");
+        }
+
+        return courses.get(courseId(name));
+    }
+
+    @Override
+    public Course[] findByKeyword(String keyword) {
+        validateKeyword(keyword);
+
+        int[] matchingIds = keywordIndex.find(keyword, courses::get, isParallel());
+
+        if (matchingIds.length == 0) {
+            return null;
+        }
+
+        Course[] matching = new Course[matchingIds.length];
+        for (int i = 0; i < matchingIds.length; i++) {
+            matching[i] = courses.get(matchingIds[i]);
+        }
+
+        return matching;
+    }
+
+    @Override
+    public Course[] completeName(String prefix, CourseOrder order, int limit) {
+        if (prefix == null || prefix.isEmpty()) {
+            throw new IllegalArgumentException("Prefix you are trying to complete is empty.");
+        }
+
+        validatePage(order, limit, null);
+        return nameIndex.complete(prefix, order, limit);
+    }
+
+    @Override
+    public Course[] findBySimilarName(String name, int maxDistance, int limit) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Course name you are trying to find is blank.");
+        }
+
+        validateSimilarity(maxDistance, limit);
+        return nameIndex.findSimilar(name, maxDistance, limit);
+    }
+
+    @Override
+    public String[] suggestKeywords(String keyword, int maxDistance, int limit) {
+        validateKeyword(keyword);
+        validateSimilarity(maxDistance, limit);
+        return termIndex.findSimilar(keyword, maxDistance, limit);
+    }
+
+    private static void validateSimilarity(int maxDistance, int limit) {
+        if (maxDistance < 0 || maxDistance > Udemy.MAX_EDIT_DISTANCE) {
+            throw new IllegalArgumentException(
+                "Edit distance must be between 0 and %d.".formatted(Udemy.MAX_EDIT_DISTANCE));
+        }
+
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be a positive number.");
+        }
+    }
+
+    @Override
+    public CoursePage findByKeyword(String keyword, CourseOrder order, int limit, PageCursor after) {
+        validateKeyword(keyword);
+        validatePage(order, limit, after);
+
+        int[] matchingIds = keywordIndex.find(keyword, courses::get, isParallel());
+        return TopK.select(matchingIds, courses::get, order, limit, after);
+    }
+
+    private static void validateKeyword(String keyword) {
+        if (keyword == null || keyword.isEmpty()) {
+            throw new IllegalArgumentException("Keyword you are trying to find is blank.");
+        }
+
+        if (!KEYWORD_PATTERN.matcher(keyword).matches()) {
+            throw new IllegalArgumentException("Keyword should contain only small and capital latin letters.");
+        }
+    }
+
+    private static void validatePage(CourseOrder order, int limit, PageCursor after) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order can't be null.");
+        }
+
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be a positive number.");
+        }
+
+        if (after != null && after.order() != order) {
+            throw new IllegalArgumentException("Cursor was issued for order %s.".formatted(after.order()));
+        }
+    }
+
+    @Override
+    public Course[] getAllCoursesByCategory(Category category) {
+        if (category == null) {
+            throw new IllegalArgumentException("Category can't be null.");
+        }
+
+        return categoryIndex.getCourses(category);
+    }
+
+    @Override
+    public CoursePage getAllCoursesByCategory(Category category, CourseOrder order, int limit, PageCursor after) {
+        if (category == null) {
+            throw new IllegalArgumentException("Category can't be null.");
+        }
+
+        validatePage(order, limit, after);
+        return categoryIndex.getPage(category, order, limit, after);
+    }
+
+    @Override
+    public Course[] getCoursesByPriceRange(Category category, double minPrice, double maxPrice) {
+        if (category == null) {
+            throw new IllegalArgumentException("Category can't be null.");
+        }
+
+        if (Double.isNaN(minPrice) || Double.isNaN(maxPrice) || minPrice > maxPrice) {
+            throw new IllegalArgumentException("Invalid price range [%s, %s].".formatted(minPrice, maxPrice));
+        }
+
+        return categoryIndex.getByPriceRange(category, minPrice, maxPrice);
+    }
+
+    @Override
+    public Course[] getCoursesByDurationRange(Category category, CourseDuration minDuration,
+                                              CourseDuration maxDuration) {
+        if (category == null || minDuration == null || maxDuration == null) {
+            throw new IllegalArgumentException("Category and durations can't be null.");
+        }
+
+        if (minDuration.isLongerThan(maxDuration)) {
+            throw new IllegalArgumentException(
+                "Invalid duration range [%s, %s].".formatted(minDuration, maxDuration));
+        }
+
+        return categoryIndex.getByDurationRange(category, minDuration.toMinutes(), maxDuration.toMinutes());
+    }
+
+    @Override
+    public CoursePage search(CourseQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query can't be null.");
+        }
+
+        if (query.keyword() != null) {
+            validateKeyword(query.keyword());
+        }
+
+        QueryPlanner planner = new QueryPlanner(keywordIndex, categoryIndex, courses::get, columns,
+            categoryIndex.size() == liveCourseCount, isParallel());
+        return planner.execute(query);
+    }
+
+    @Override
+    public AccountBase getAccount(String name) throws AccountNotFoundException {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Name can't be null or blank.");
+        }
+
+        AccountBase account = accountsByUsername.get(name);
+        if (account != null) {
+            return account;
+        }
+
+        throw new AccountNotFoundException("No account with name %s was found.".formatted(name));
+    }
+
+    @Override
+    public Course getLongestCourse() {
+        return durationIndex.getLongest();
+    }
+
+    @Override
+    public Course getCheapestByCategory(Category category) {
+        if (category == null) {
+            throw new IllegalArgumentException("Category can't be null.");
+        }
+
+        return categoryIndex.getCheapest(category);
+    }
+}
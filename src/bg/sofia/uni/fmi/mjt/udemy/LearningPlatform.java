@@ -3,8 +3,13 @@ package bg.sofia.uni.fmi.mjt.udemy;
 import bg.sofia.uni.fmi.mjt.udemy.account.Account;
 import bg.sofia.uni.fmi.mjt.udemy.course.Category;
 import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.CourseDuration;
 import bg.sofia.uni.fmi.mjt.udemy.exception.AccountNotFoundException;
 import bg.sofia.uni.fmi.mjt.udemy.exception.CourseNotFoundException;
+import bg.sofia.uni.fmi.mjt.udemy.query.CourseOrder;
+import bg.sofia.uni.fmi.mjt.udemy.query.CoursePage;
+import bg.sofia.uni.fmi.mjt.udemy.query.CourseQuery;
+import bg.sofia.uni.fmi.mjt.udemy.query.PageCursor;
 
 public interface LearningPlatform {
 
@@ -17,6 +22,44 @@ public interface LearningPlatform {
      */
     Course findByName(String name) throws CourseNotFoundException;
 
+    /**
+     * Returns up to limit courses which name starts with the prefix, in the given order.
+     * Meant for completing course names as they are typed; the cost does not grow with the number of matches.
+     *
+     * @param prefix the exact beginning of the course names, case-sensitive.
+     * @param order  the order in which the first courses are chosen and returned.
+     * @param limit  the maximal number of courses returned.
+     * @throws IllegalArgumentException if prefix is null or empty, order is null or limit is not positive.
+     */
+    Course[] completeName(String prefix, CourseOrder order, int limit);
+
+    /**
+     * Returns up to limit courses which name is within maxDistance single-character insertions, deletions and
+     * substitutions of the given name, the closest first and equally close ones in name order.
+     * Meant for names which findByName does not know, such as misspelled ones; the cost depends on the names close
+     * to the given one, not on the size of the catalog.
+     *
+     * @param name        the misspelled course name, case-sensitive.
+     * @param maxDistance the maximal Levenshtein distance, at most {@link Udemy#MAX_EDIT_DISTANCE}.
+     * @param limit       the maximal number of courses returned.
+     * @throws IllegalArgumentException if name is null or blank, maxDistance is negative or too large or limit is
+     *                                  not positive.
+     */
+    Course[] findBySimilarName(String name, int maxDistance, int limit);
+
+    /**
+     * Returns up to limit keywords found in course names and descriptions which are within maxDistance
+     * single-character insertions, deletions and substitutions of the given keyword, the closest first, then the
+     * ones found in more courses. Every keyword returned matches at least one course in findByKeyword.
+     *
+     * @param keyword     the misspelled keyword, case-sensitive.
+     * @param maxDistance the maximal Levenshtein distance, at most {@link Udemy#MAX_EDIT_DISTANCE}.
+     * @param limit       the maximal number of keywords returned.
+     * @throws IllegalArgumentException if keyword is null, blank or not a keyword, maxDistance is negative or too
+     *                                  large or limit is not positive.
+     */
+    String[] suggestKeywords(String keyword, int maxDistance, int limit);
+
     /**
      * Returns all courses which name or description containing keyword.
      * A keyword is a word that consists of only small and capital latin letters.
@@ -26,14 +69,70 @@ public interface LearningPlatform {
      */
     Course[] findByKeyword(String keyword);
 
+    /**
+     * Returns one page of the courses which name or description contain keyword, in the given order.
+     *
+     * @param keyword the exact keyword for which we will search.
+     * @param order   the order of the results.
+     * @param limit   the maximal number of courses in the page.
+     * @param after   the cursor of the previous page, or null for the first page.
+     * @throws IllegalArgumentException if keyword is null, blank or not a keyword, order is null, limit is not
+     *                                  positive or the cursor was issued for another order.
+     */
+    CoursePage findByKeyword(String keyword, CourseOrder order, int limit, PageCursor after);
+
     /**
      * Returns all courses from a given category.
+     * The returned array may be shared between calls and must not be modified.
      *
      * @param category the exact category the courses for which we want to get.
      * @throws IllegalArgumentException if category is null.
      */
     Course[] getAllCoursesByCategory(Category category);
 
+    /**
+     * Returns one page of the courses from a given category, in the given order.
+     *
+     * @param category the exact category the courses for which we want to get.
+     * @param order    the order of the results.
+     * @param limit    the maximal number of courses in the page.
+     * @param after    the cursor of the previous page, or null for the first page.
+     * @throws IllegalArgumentException if category or order is null, limit is not positive or the cursor was
+     *                                  issued for another order.
+     */
+    CoursePage getAllCoursesByCategory(Category category, CourseOrder order, int limit, PageCursor after);
+
+    /**
+     * Returns the courses from a given category which price is between minPrice and maxPrice, inclusive,
+     * from the cheapest to the most expensive.
+     *
+     * @param category the exact category the courses for which we want to get.
+     * @param minPrice the lowest price of a returned course.
+     * @param maxPrice the highest price of a returned course.
+     * @throws IllegalArgumentException if category is null, a bound is not a number or minPrice is greater
+     *                                  than maxPrice.
+     */
+    Course[] getCoursesByPriceRange(Category category, double minPrice, double maxPrice);
+
+    /**
+     * Returns the courses from a given category which duration is between minDuration and maxDuration, inclusive,
+     * from the shortest to the longest.
+     *
+     * @param category    the exact category the courses for which we want to get.
+     * @param minDuration the shortest duration of a returned course.
+     * @param maxDuration the longest duration of a returned course.
+     * @throws IllegalArgumentException if any argument is null or minDuration is longer than maxDuration.
+     */
+    Course[] getCoursesByDurationRange(Category category, CourseDuration minDuration, CourseDuration maxDuration);
+
+    /**
+     * Returns one page of the courses meeting every criterion of the query, in the order of the query.
+     *
+     * @param query the criteria, order and page of the search.
+     * @throws IllegalArgumentException if query is null or its keyword is not a keyword.
+     */
+    CoursePage search(CourseQuery query);
+
     /**
      * Returns the account with the given name.
      *
@@ -3,6 +3,7 @@ package bg.sofia.uni.fmi.mjt.udemy;
 import bg.sofia.uni.fmi.mjt.udemy.account.AccountBase;
 import bg.sofia.uni.fmi.mjt.udemy.account.BusinessAccount;
 import bg.sofia.uni.fmi.mjt.udemy.account.EducationalAccount;
+import bg.sofia.uni.fmi.mjt.udemy.account.Enrollment;
 import bg.sofia.uni.fmi.mjt.udemy.account.StandartAccount;
 import bg.sofia.uni.fmi.mjt.udemy.course.Category;
 import bg.sofia.uni.fmi.mjt.udemy.course.Course;
@@ -95,14 +96,14 @@ public class MainDemo {
         // Demonstrate completing resources
         System.out.println("\n--- Completing Resources ---");
         System.out.println("Initial Java course completion percentage: " +
-            javaCourse.getCompletionPercentage() + "%");
+            standardAccount.getEnrollment(javaCourse).getCompletionPercentage() + "%");
 
         // Complete some resources in Java course for standard account
         completeResources(standardAccount, javaCourse,
             new Resource[] {javaResources[0], javaResources[1]});
 
         System.out.println("After completing 2 resources, Java course completion percentage: " +
-            javaCourse.getCompletionPercentage() + "%");
+            standardAccount.getEnrollment(javaCourse).getCompletionPercentage() + "%");
 
         // Complete all resources and finish the course
         completeResources(standardAccount, javaCourse,
@@ -230,8 +231,9 @@ public class MainDemo {
     private static void completeCourse(AccountBase account, Course course, double grade) {
         try {
             account.completeCourse(course, grade);
-            System.out.println(course.getName() + " completed with grade: " + course.getGrade());
-            System.out.println("Is " + course.getName() + " course completed? " + course.isCompleted());
+            Enrollment enrollment = account.getEnrollment(course);
+            System.out.println(course.getName() + " completed with grade: " + enrollment.getGrade());
+            System.out.println("Is " + course.getName() + " course completed? " + enrollment.isCompleted());
         } catch (CourseNotPurchasedException e) {
             System.out.println("Course not purchased: " + e.getMessage());
         } catch (CourseNotCompletedException e) {
@@ -0,0 +1,324 @@
+package bg.sofia.uni.fmi.mjt.udemy;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.index.CategoryIndex;
+import bg.sofia.uni.fmi.mjt.udemy.index.CourseColumns;
+import bg.sofia.uni.fmi.mjt.udemy.index.KeywordIndex;
+import bg.sofia.uni.fmi.mjt.udemy.index.ParallelScan;
+import bg.sofia.uni.fmi.mjt.udemy.query.CoursePage;
+import bg.sofia.uni.fmi.mjt.udemy.query.CourseQuery;
+import bg.sofia.uni.fmi.mjt.udemy.query.TopK;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Executes a {@link CourseQuery} against the indexes of one snapshot.
+ * Every criterion backed by an index becomes an access path with an estimated number of matches. The most
+ * selective path produces the candidate ids; each of the other paths is intersected with them as a sorted id
+ * list when it is at most {@value #INTERSECTION_FACTOR} times larger than the candidates and checked course by
+ * course otherwise, reading price, duration and category from the {@link CourseColumns}. When no criterion
+ * besides the keyword narrows the catalog down to 1/{@value #SCAN_DIVISOR} of it, the candidates come from one
+ * sequential pass over the columns instead. The surviving candidates are paged with a heap bounded by the page size.
+ */
+final class QueryPlanner {
+    private static final int INTERSECTION_FACTOR = 16;
+    private static final int SCAN_DIVISOR = 8;
+    private static final int UNKNOWN = Integer.MAX_VALUE;
+
+    private final KeywordIndex keywordIndex;
+    private final CategoryIndex categoryIndex;
+    private final IntFunction<Course> courseById;
+    private final CourseColumns columns;
+    private final boolean everyCourseCategorized;
+    private final boolean parallel;
+
+    /**
+     * @param everyCourseCategorized whether every course of the catalog is in the category index, so that ranges
+     *                               over all categories cover the whole catalog.
+     */
+    QueryPlanner(KeywordIndex keywordIndex, CategoryIndex categoryIndex, IntFunction<Course> courseById,
+                 CourseColumns columns, boolean everyCourseCategorized, boolean parallel) {
+        this.keywordIndex = keywordIndex;
+        this.categoryIndex = categoryIndex;
+        this.courseById = courseById;
+        this.columns = columns;
+        this.everyCourseCategorized = everyCourseCategorized;
+        this.parallel = parallel;
+    }
+
+    CoursePage execute(CourseQuery query) {
+        List<AccessPath> paths = plan(query);
+
+        int[] candidates;
+        List<AccessPath> remaining;
+        if (shouldScan(paths)) {
+            // The scan applies the categories and every range, leaving only the keyword to check.
+            candidates = columns.scan(CourseColumns.maskOf(query.categories()), query.minPrice(), query.maxPrice(),
+                query.minMinutes(), query.maxMinutes());
+            remaining = paths.stream().filter(path -> path instanceof KeywordPath).toList();
+        } else {
+            candidates = paths.get(0).ids();
+            remaining = paths.subList(1, paths.size());
+        }
+
+        List<AccessPath> residual = new ArrayList<>();
+        for (AccessPath path : remaining) {
+            if (candidates.length == 0) {
+                break;
+            }
+
+            if (path.estimate != UNKNOWN && path.estimate <= (long) INTERSECTION_FACTOR * candidates.length) {
+                candidates = intersect(candidates, path.ids());
+            } else {
+                residual.add(path);
+            }
+        }
+
+        if (!residual.isEmpty() && candidates.length > 0) {
+            candidates = filter(candidates, residual);
+        }
+
+        return TopK.select(candidates, courseById, query.order(), query.limit(), query.after());
+    }
+
+    private boolean shouldScan(List<AccessPath> paths) {
+        if (paths.isEmpty()) {
+            return true;
+        }
+
+        AccessPath best = paths.get(0);
+        return best.estimate == UNKNOWN || (!(best instanceof KeywordPath) && best.estimate > scanLimit());
+    }
+
+    private int scanLimit() {
+        return columns.size() / SCAN_DIVISOR;
+    }
+
+    /**
+     * Returns the access paths of the query, the most selective first.
+     */
+    List<AccessPath> plan(CourseQuery query) {
+        List<AccessPath> paths = new ArrayList<>();
+        if (query.keyword() != null) {
+            paths.add(new KeywordPath(query.keyword()));
+        }
+
+        if (!query.categories().isEmpty()) {
+            paths.add(new CategoryPath(query.categories()));
+        }
+
+        int cheapest = paths.stream().mapToInt(path -> path.estimate).min().orElse(Integer.MAX_VALUE);
+        int countLimit = (int) Math.min((long) INTERSECTION_FACTOR * cheapest, scanLimit() + 1L);
+        Category[] scope = query.categories().isEmpty() ? Category.values() :
+            query.categories().toArray(new Category[0]);
+        boolean scopeCoversMatches = !query.categories().isEmpty() || everyCourseCategorized;
+
+        if (query.hasPriceRange()) {
+            paths.add(new PriceRangePath(scope, query.minPrice(), query.maxPrice(),
+                scopeCoversMatches ? countLimit : 0));
+        }
+
+        if (query.hasDurationRange()) {
+            paths.add(new DurationRangePath(scope, query.minMinutes(), query.maxMinutes(),
+                scopeCoversMatches ? countLimit : 0));
+        }
+
+        paths.sort(Comparator.comparingInt(path -> path.estimate));
+        return paths;
+    }
+
+    private int[] filter(int[] candidates, List<AccessPath> residual) {
+        if (parallel) {
+            return ParallelScan.filter(candidates, id -> matchesAll(id, residual));
+        }
+
+        int size = 0;
+        for (int id : candidates) {
+            if (matchesAll(id, residual)) {
+                candidates[size++] = id;
+            }
+        }
+
+        return Arrays.copyOf(candidates, size);
+    }
+
+    private static boolean matchesAll(int id, List<AccessPath> paths) {
+        for (AccessPath path : paths) {
+            if (!path.matches(id)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int[] intersect(int[] left, int[] right) {
+        int[] result = new int[Math.min(left.length, right.length)];
+        int size = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] == right[j]) {
+                result[size++] = left[i];
+                i++;
+                j++;
+            } else if (left[i] < right[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+
+        return Arrays.copyOf(result, size);
+    }
+
+    private static int[] concatSorted(List<int[]> parts) {
+        int[] ids = parts.stream().flatMapToInt(Arrays::stream).toArray();
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * A way to find the courses meeting one criterion: through an index, or by checking a course directly.
+     */
+    abstract static class AccessPath {
+        final int estimate;
+
+        AccessPath(int estimate) {
+            this.estimate = estimate;
+        }
+
+        /**
+         * Returns the ids of the courses meeting the criterion, in ascending order.
+         */
+        abstract int[] ids();
+
+        /**
+         * Returns whether the course with the given id meets the criterion.
+         */
+        abstract boolean matches(int id);
+    }
+
+    private final class KeywordPath extends AccessPath {
+        private final String keyword;
+
+        KeywordPath(String keyword) {
+            super(keywordIndex.estimate(keyword));
+            this.keyword = keyword;
+        }
+
+        @Override
+        int[] ids() {
+            return keywordIndex.find(keyword, courseById, parallel);
+        }
+
+        @Override
+        boolean matches(int id) {
+            return KeywordIndex.contains(courseById.apply(id), keyword);
+        }
+    }
+
+    private final class CategoryPath extends AccessPath {
+        private final Set<Category> categories;
+        private final int categoryMask;
+
+        CategoryPath(Set<Category> categories) {
+            super(categories.stream().mapToInt(categoryIndex::size).sum());
+            this.categories = categories;
+            this.categoryMask = CourseColumns.maskOf(categories);
+        }
+
+        @Override
+        int[] ids() {
+            return concatSorted(categories.stream().map(categoryIndex::ids).toList());
+        }
+
+        @Override
+        boolean matches(int id) {
+            return columns.isInCategories(id, categoryMask);
+        }
+    }
+
+    private final class PriceRangePath extends AccessPath {
+        private final Category[] scope;
+        private final double minPrice;
+        private final double maxPrice;
+
+        /**
+         * @param countLimit the number of matches from which the range is considered too wide to be read
+         *                   from the index, or 0 if it must not be read from the index at all.
+         */
+        PriceRangePath(Category[] scope, double minPrice, double maxPrice, int countLimit) {
+            super(countLimit == 0 ? UNKNOWN : count(countLimit,
+                (category, limit) -> categoryIndex.countByPriceRange(category, minPrice, maxPrice, limit), scope));
+            this.scope = scope;
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+        }
+
+        @Override
+        int[] ids() {
+            return concatSorted(Arrays.stream(scope)
+                .map(category -> categoryIndex.idsByPriceRange(category, minPrice, maxPrice))
+                .toList());
+        }
+
+        @Override
+        boolean matches(int id) {
+            return columns.isPriceBetween(id, minPrice, maxPrice);
+        }
+    }
+
+    private final class DurationRangePath extends AccessPath {
+        private final Category[] scope;
+        private final int minMinutes;
+        private final int maxMinutes;
+
+        DurationRangePath(Category[] scope, int minMinutes, int maxMinutes, int countLimit) {
+            super(countLimit == 0 ? UNKNOWN : count(countLimit,
+                (category, limit) -> categoryIndex.countByDurationRange(category, minMinutes, maxMinutes, limit),
+                scope));
+            this.scope = scope;
+            this.minMinutes = minMinutes;
+            this.maxMinutes = maxMinutes;
+        }
+
+        @Override
+        int[] ids() {
+            return concatSorted(Arrays.stream(scope)
+                .map(category -> categoryIndex.idsByDurationRange(category, minMinutes, maxMinutes))
+                .toList());
+        }
+
+        @Override
+        boolean matches(int id) {
+            return columns.isDurationBetween(id, minMinutes, maxMinutes);
+        }
+    }
+
+    private interface RangeCounter {
+        int count(Category category, int limit);
+    }
+
+    /**
+     * Counts the matches over the categories, returning {@link #UNKNOWN} once limit is reached.
+     */
+    private static int count(int limit, RangeCounter counter, Category[] scope) {
+        int total = 0;
+        for (Category category : scope) {
+            total += counter.count(category, limit - total);
+            if (total >= limit) {
+                return UNKNOWN;
+            }
+        }
+
+        return total;
+    }
+}
@@ -1,134 +1,319 @@
 package bg.sofia.uni.fmi.mjt.udemy;
 
-import bg.sofia.uni.fmi.mjt.udemy.account.Account;
 import bg.sofia.uni.fmi.mjt.udemy.account.AccountBase;
 import bg.sofia.uni.fmi.mjt.udemy.course.Category;
 import bg.sofia.uni.fmi.mjt.udemy.course.Course;
 import bg.sofia.uni.fmi.mjt.udemy.course.duration.CourseDuration;
 import bg.sofia.uni.fmi.mjt.udemy.exception.AccountNotFoundException;
 import bg.sofia.uni.fmi.mjt.udemy.exception.CourseNotFoundException;
+import bg.sofia.uni.fmi.mjt.udemy.index.KeywordCache;
+import bg.sofia.uni.fmi.mjt.udemy.index.KeywordCacheStats;
+import bg.sofia.uni.fmi.mjt.udemy.query.CourseOrder;
+import bg.sofia.uni.fmi.mjt.udemy.query.CoursePage;
+import bg.sofia.uni.fmi.mjt.udemy.query.CourseQuery;
+import bg.sofia.uni.fmi.mjt.udemy.query.PageCursor;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
+/**
+ * A learning platform which catalog and accounts can change at runtime.
+ * Queries run against the current {@link CatalogSnapshot} without taking any lock. Changes are serialized:
+ * each one builds the next snapshot from the current one and then publishes it, so a query sees either all or
+ * none of a change. Changing many courses at once with {@link #addCourses(Course[])} publishes a single version.
+ * A {@link CatalogEventListener} set with {@link #setEventListener(CatalogEventListener)} is told of every change
+ * before it is published, in publication order.
+ * Scans run sequentially unless a parallel threshold is set with {@link #setParallelThreshold(int)}.
+ * Keyword lookups which verify candidates are cached across versions; a change to the catalog invalidates only
+ * the cached keywords sharing an indexed gram with a changed course.
+ */
 public class Udemy implements LearningPlatform {
-    private AccountBase[] accounts;
-    private Course[] courses;
+    public static final int NEVER_PARALLEL = Integer.MAX_VALUE;
+    public static final long DEFAULT_KEYWORD_CACHE_WEIGHT = 16L << 20;
+    public static final int MAX_EDIT_DISTANCE = 2;
+
+    private final KeywordCache keywordCache;
+    private final AtomicReference<CatalogSnapshot> catalog;
+    private final Object writeLock;
+    private volatile CatalogEventListener eventListener;
 
     public Udemy(AccountBase[] accounts, Course[] courses) {
-        this.accounts = accounts;
-        this.courses = courses;
+        this.keywordCache = new KeywordCache(DEFAULT_KEYWORD_CACHE_WEIGHT);
+        this.catalog = new AtomicReference<>(new CatalogSnapshot(accounts, courses, keywordCache));
+        this.writeLock = new Object();
     }
 
-    @Override
-    public Course findByName(String name) throws CourseNotFoundException {
-        if (name == null || name.isBlank()) {
-            throw new IllegalArgumentException("Course name you are trying to find is blank.");
+    /**
+     * Sets the listener which is notified of every change of the catalog and account set, or null for none.
+     */
+    public void setEventListener(CatalogEventListener eventListener) {
+        this.eventListener = eventListener;
+    }
+
+    /**
+     * Returns the current version of the catalog. It does not change when the platform changes.
+     */
+    public CatalogSnapshot snapshot() {
+        return catalog.get();
+    }
+
+    /**
+     * Applies the reader to the current version of the catalog while no change can be published, so that what
+     * the reader observes besides the version, such as the position of a journal of the changes, matches it.
+     */
+    public <T> T readConsistently(Function<CatalogSnapshot, T> reader) {
+        synchronized (writeLock) {
+            return reader.apply(catalog.get());
         }
+    }
 
-        for (Course course : courses) {
-            if (course.getName().equals(name)) {
-                return course;
-            }
+    /**
+     * Makes scans over the catalog, such as keyword verification and listing all courses, run on the common
+     * fork-join pool once the catalog has at least the given number of courses. Results do not depend on it.
+     *
+     * @param catalogSize the minimal catalog size for parallel scans, or {@link #NEVER_PARALLEL}.
+     * @throws IllegalArgumentException if catalogSize is not positive.
+     */
+    public void setParallelThreshold(int catalogSize) {
+        if (catalogSize <= 0) {
+            throw new IllegalArgumentException("Parallel threshold must be a positive number.");
         }
 
-        throw new CourseNotFoundException("No course with name %s in this Udemy".formatted(name));
+        synchronized (writeLock) {
+            CatalogSnapshot next = new CatalogSnapshot(catalog.get());
+            next.setParallelThreshold(catalogSize);
+            catalog.set(next);
+        }
     }
 
-    public Course[] findByKeyword(String keyword) {
-        if (keyword == null || keyword.isEmpty()) {
-            throw new IllegalArgumentException("Keyword you are trying to find is blank.");
-        }
+    /**
+     * Bounds the keyword lookup cache, evicting entries if it holds more.
+     *
+     * @param maximumWeight the total weight of the cached lookups, roughly in bytes, or 0 to disable the cache.
+     * @throws IllegalArgumentException if maximumWeight is negative.
+     */
+    public void setKeywordCacheWeight(long maximumWeight) {
+        keywordCache.setMaximumWeight(maximumWeight);
+    }
+
+    /**
+     * Returns the hit, miss, invalidation and eviction counters of the keyword lookup cache.
+     */
+    public KeywordCacheStats getKeywordCacheStats() {
+        return keywordCache.stats();
+    }
 
-        if (!keyword.matches("^[a-zA-Z]+$")) {
-            throw new IllegalArgumentException("Keyword should contain only small and capital latin letters.");
+    /**
+     * Appends the courses to the catalog and registers them in every index.
+     * The batch is checked as a whole first, so either every course is added or none is.
+     *
+     * @throws IllegalArgumentException if batch, one of its courses or a course name is null, or a name is already
+     *                                  taken, by the catalog or by an earlier course of the batch.
+     */
+    public void addCourses(Course[] batch) {
+        if (batch == null) {
+            throw new IllegalArgumentException("Courses to add can't be null.");
         }
 
-        List<Course> matchingList = new ArrayList<>();
+        synchronized (writeLock) {
+            CatalogSnapshot next = new CatalogSnapshot(catalog.get());
+            next.addCourses(batch);
 
-        for (Course course : courses) {
-            if (course != null && course.getName() != null && course.getDescription() != null) {
-                if (course.getName().contains(keyword) || course.getDescription().contains(keyword)) {
-                    matchingList.add(course);
-                }
+            CatalogEventListener listener = eventListener;
+            if (listener != null) {
+                listener.onCoursesAdded(batch);
             }
-        }
 
-        if (matchingList.isEmpty()) {
-            return null;
-        } else {
-            return matchingList.toArray(new Course[0]);
+            catalog.set(next);
         }
     }
 
-    @Override
-    public Course[] getAllCoursesByCategory(Category category) {
-        if (category == null) {
-            throw new IllegalArgumentException("Category can't be null.");
+    /**
+     * Appends the course to the catalog and registers it in every index.
+     *
+     * @throws IllegalArgumentException if course or its name is null or a course with the same name already exists.
+     */
+    public void addCourse(Course course) {
+        if (course == null || course.getName() == null) {
+            throw new IllegalArgumentException("Course and its name can't be null.");
         }
 
-        List<Course> coursesMatchingCategory = new ArrayList<>();
-        for (Course course : this.courses) {
-            if (course != null && course.getCategory() != null) {
-                if (course.getCategory().equals(category)) {
-                    coursesMatchingCategory.add(course);
-                }
+        synchronized (writeLock) {
+            CatalogSnapshot next = new CatalogSnapshot(catalog.get());
+            next.addCourse(course);
+
+            CatalogEventListener listener = eventListener;
+            if (listener != null) {
+                listener.onCoursesAdded(new Course[] {course});
             }
-        }
 
-        return coursesMatchingCategory.toArray(new Course[0]);
+            catalog.set(next);
+        }
     }
 
-    @Override
-    public AccountBase getAccount(String name) throws AccountNotFoundException {
+    /**
+     * Removes the course with the given name from the catalog and every index.
+     * Accounts which already own the course keep it.
+     *
+     * @return the removed course.
+     * @throws CourseNotFoundException if there is no course with that name.
+     */
+    public Course removeCourse(String name) throws CourseNotFoundException {
         if (name == null || name.isBlank()) {
-            throw new IllegalArgumentException("Name can't be null or blank.");
+            throw new IllegalArgumentException("Course name you are trying to remove is blank.");
         }
 
-        for (AccountBase account : accounts) {
-            if (account.getUsername().equals(name)) {
-                return account;
+        synchronized (writeLock) {
+            CatalogSnapshot next = new CatalogSnapshot(catalog.get());
+            Course removed = next.removeCourse(name);
+
+            CatalogEventListener listener = eventListener;
+            if (listener != null) {
+                listener.onCourseRemoved(name);
             }
-        }
 
-        throw new AccountNotFoundException("No account with name %s was found.".formatted(name));
+            catalog.set(next);
+            return removed;
+        }
     }
 
-    @Override
-    public Course getLongestCourse() {
-        CourseDuration maxCourseDuration = new CourseDuration(0, 0);
-        Course longestCourse = null;
+    /**
+     * Replaces the course with the given name by a copy with the new price and reorders the cheapest course
+     * of its category accordingly. Accounts which already own the course keep the copy they bought.
+     *
+     * @return the repriced course.
+     * @throws CourseNotFoundException if there is no course with that name.
+     */
+    public Course updatePrice(String name, double newPrice) throws CourseNotFoundException {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Course name you are trying to update is blank.");
+        }
 
-        for (Course course : courses) {
-            if (course.getTotalTime().isLongerThan(maxCourseDuration)) {
-                maxCourseDuration = course.getTotalTime();
-                longestCourse = course;
-            }
+        if (!(newPrice >= 0)) {
+            throw new IllegalArgumentException("Price must be a non-negative number.");
         }
 
-        return longestCourse;
+        synchronized (writeLock) {
+            CatalogSnapshot next = new CatalogSnapshot(catalog.get());
+            Course repriced = next.updatePrice(name, newPrice);
+
+            CatalogEventListener listener = eventListener;
+            if (listener != null) {
+                listener.onPriceUpdated(name, newPrice);
+            }
+
+            catalog.set(next);
+            return repriced;
+        }
     }
 
-    @Override
-    public Course getCheapestByCategory(Category category) {
-        if (category == null) {
-            throw new IllegalArgumentException("Category can't be null.");
+    /**
+     * Adds the account to the platform.
+     *
+     * @throws IllegalArgumentException if account or its username is null or the username is already taken.
+     */
+    public void addAccount(AccountBase account) {
+        if (account == null || account.getUsername() == null) {
+            throw new IllegalArgumentException("Account and its username can't be null.");
         }
 
-        double cheapestPrice = Double.MAX_VALUE;
-        Course cheapestCourse = null;
-        for (Course course : this.courses) {
-            if (course != null && course.getCategory() != null) {
-                if (course.getCategory().equals(category)) {
-                    if (course.getPrice() < cheapestPrice) {
-                        cheapestCourse = course;
-                        cheapestPrice = cheapestCourse.getPrice();
-                    }
+        synchronized (writeLock) {
+            CatalogSnapshot next = new CatalogSnapshot(catalog.get());
+            next.addAccount(account);
+
+            CatalogEventListener listener = eventListener;
+            if (listener != null) {
+                synchronized (account) {
+                    listener.onAccountAdded(account);
                 }
             }
+
+            catalog.set(next);
         }
+    }
+
+    /**
+     * Returns all courses of the platform in catalog order.
+     */
+    public Course[] getAllCourses() {
+        return catalog.get().getAllCourses();
+    }
+
+    /**
+     * Returns all accounts of the platform.
+     */
+    public AccountBase[] getAllAccounts() {
+        return catalog.get().getAllAccounts();
+    }
 
-        return cheapestCourse;
+    @Override
+    public Course findByName(String name) throws CourseNotFoundException {
+        return catalog.get().findByName(name);
+    }
+
+    @Override
+    public Course[] completeName(String prefix, CourseOrder order, int limit) {
+        return catalog.get().completeName(prefix, order, limit);
+    }
+
+    @Override
+    public Course[] findBySimilarName(String name, int maxDistance, int limit) {
+        return catalog.get().findBySimilarName(name, maxDistance, limit);
+    }
+
+    @Override
+    public String[] suggestKeywords(String keyword, int maxDistance, int limit) {
+        return catalog.get().suggestKeywords(keyword, maxDistance, limit);
+    }
+
+    @Override
+    public Course[] findByKeyword(String keyword) {
+        return catalog.get().findByKeyword(keyword);
+    }
+
+    @Override
+    public CoursePage findByKeyword(String keyword, CourseOrder order, int limit, PageCursor after) {
+        return catalog.get().findByKeyword(keyword, order, limit, after);
+    }
+
+    @Override
+    public Course[] getAllCoursesByCategory(Category category) {
+        return catalog.get().getAllCoursesByCategory(category);
+    }
+
+    @Override
+    public CoursePage getAllCoursesByCategory(Category category, CourseOrder order, int limit, PageCursor after) {
+        return catalog.get().getAllCoursesByCategory(category, order, limit, after);
+    }
+
+    @Override
+    public Course[] getCoursesByPriceRange(Category category, double minPrice, double maxPrice) {
+        return catalog.get().getCoursesByPriceRange(category, minPrice, maxPrice);
+    }
+
+    @Override
+    public Course[] getCoursesByDurationRange(Category category, CourseDuration minDuration,
+                                              CourseDuration maxDuration) {
+        return catalog.get().getCoursesByDurationRange(category, minDuration, maxDuration);
+    }
+
+    @Override
+    public CoursePage search(CourseQuery query) {
+        return catalog.get().search(query);
+    }
+
+    @Override
+    public AccountBase getAccount(String name) throws AccountNotFoundException {
+        return catalog.get().getAccount(name);
+    }
+
+    @Override
+    public Course getLongestCourse() {
+        return catalog.get().getLongestCourse();
+    }
+
+    @Override
+    public Course getCheapestByCategory(Category category) {
+        return catalog.get().getCheapestByCategory(category);
     }
 }
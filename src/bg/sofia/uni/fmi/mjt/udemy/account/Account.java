@@ -28,14 +28,27 @@ public interface Account {
      * Buys the given course for the account.
      *
      * @param course the course which will be bought.
-     * @throws IllegalArgumentException          if the account buyer is of type BusinessAccount and course has category which is not among the permitted for this account
-     * @throws InsufficientBalanceException      if the account does not have enough funds in its balance.
+     * @throws IllegalArgumentException          if course is null, or if the account buyer is of type BusinessAccount and course has category which is not among the permitted for this account
+     * @throws InsufficientBalanceException      if the account does not have enough funds for the discounted price of the course.
      * @throws CourseAlreadyPurchasedException   if the course is already purchased for this account.
      * @throws MaxCourseCapacityReachedException if the account has reached the maximum allowed course capacity.
      */
     void buyCourse(Course course)
         throws InsufficientBalanceException, CourseAlreadyPurchasedException, MaxCourseCapacityReachedException;
 
+    /**
+     * Buys all courses of the cart for the account, or none of them.
+     * The whole cart is validated before the balance is charged once with the sum of the discounted prices.
+     *
+     * @param cart the courses which will be bought.
+     * @throws IllegalArgumentException          if cart is null, empty or contains null, or if the account buyer is of type BusinessAccount and a course has category which is not among the permitted for this account
+     * @throws InsufficientBalanceException      if the account does not have enough funds for the whole cart.
+     * @throws CourseAlreadyPurchasedException   if a course is already purchased for this account or appears twice in the cart.
+     * @throws MaxCourseCapacityReachedException if the cart does not fit in the account's maximum allowed course capacity.
+     */
+    void buyCourses(Course[] cart)
+        throws InsufficientBalanceException, CourseAlreadyPurchasedException, MaxCourseCapacityReachedException;
+
     /**
      * Completes the given resources that belong to the given course provided that the course was previously purchased by this account.
      *
@@ -1,98 +1,379 @@
 package bg.sofia.uni.fmi.mjt.udemy.account;
 
-import bg.sofia.uni.fmi.mjt.udemy.course.Completable;
+import bg.sofia.uni.fmi.mjt.udemy.account.type.AccountType;
 import bg.sofia.uni.fmi.mjt.udemy.course.Course;
 import bg.sofia.uni.fmi.mjt.udemy.course.Resource;
 import bg.sofia.uni.fmi.mjt.udemy.exception.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Base implementation of an account.
+ * All balance and course state is guarded by the account's own monitor, so operations on one account
+ * are serialized while operations on different accounts never contend with each other.
+ */
 public abstract class AccountBase implements Account {
-    private static final int MAX_CAPACITY = 100;
+    public static final int DEFAULT_MAX_CAPACITY = 100;
+    private static final int INITIAL_CAPACITY = 4;
     private static final double MIN_GRADE = 2.0;
     private static final double MAX_GRADE = 6.0;
 
     private final String username;
     private double balance;
-    private final Course[] courses;
+    private final int maxCapacity;
+    private Enrollment[] enrollments;
     private int courseCounter;
+    private volatile AccountEventListener eventListener;
 
     public AccountBase(String username, double balance) {
+        this(username, balance, DEFAULT_MAX_CAPACITY);
+    }
+
+    /**
+     * Creates an account which can own at most maxCapacity courses.
+     * Course storage is allocated on the first purchase and grows with the number of owned courses.
+     */
+    public AccountBase(String username, double balance, int maxCapacity) {
+        if (maxCapacity <= 0) {
+            throw new IllegalArgumentException("Max capacity must be a positive number!");
+        }
+
         this.username = username;
         this.balance = balance;
-        this.courses = new Course[MAX_CAPACITY];
+        this.maxCapacity = maxCapacity;
+        this.enrollments = null;
         this.courseCounter = 0;
     }
 
     public AccountBase(String username, double balance, Course[] courses, int courseCounter) {
         this.username = username;
         this.balance = balance;
-        this.courses = courses;
+        this.maxCapacity = Math.max(DEFAULT_MAX_CAPACITY, courses.length);
+        this.enrollments = new Enrollment[courses.length];
+        for (int i = 0; i < courseCounter; i++) {
+            this.enrollments[i] = new Enrollment(courses[i]);
+        }
         this.courseCounter = courseCounter;
     }
 
+    public int getMaxCapacity() {
+        return this.maxCapacity;
+    }
+
+    /**
+     * Sets the listener which is notified of every change of the account's state, or null for none.
+     * The listener is notified once the change has been validated and before it is applied, so if the listener
+     * throws, the account is left unchanged.
+     */
+    public void setEventListener(AccountEventListener eventListener) {
+        this.eventListener = eventListener;
+    }
+
     @Override
     public String getUsername() {
         return this.username;
     }
 
     @Override
-    public void addToBalance(double amount) {
+    public synchronized void addToBalance(double amount) {
         if (amount < 0) {
             throw new IllegalArgumentException("Amount can't be a negative number!");
         }
 
+        AccountEventListener listener = this.eventListener;
+        if (listener != null) {
+            listener.onTopUp(this, amount);
+        }
+
         this.balance += amount;
     }
 
     @Override
-    public double getBalance() {
+    public synchronized double getBalance() {
         return this.balance;
     }
 
     protected abstract double applyDiscount(Course course);
 
+    /**
+     * Returns the type of the account, used to recreate it from a captured state.
+     */
+    protected abstract AccountType getAccountType();
+
+    /**
+     * Serializes the whole state of the account: balance, capacity, enrollments and type-specific state.
+     * The state is taken under the account's lock, so it reflects a point between two operations.
+     */
+    public synchronized byte[] captureState() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeByte(getAccountType().ordinal());
+            output.writeUTF(this.username);
+            output.writeDouble(this.balance);
+            output.writeInt(this.maxCapacity);
+            writeExtraState(output);
+
+            output.writeInt(this.courseCounter);
+            for (int i = 0; i < this.courseCounter; i++) {
+                this.enrollments[i].writeState(output);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Recreates an account from a state returned by {@link #captureState()}.
+     *
+     * @param courseByName resolves the name of an owned course to the catalog course.
+     * @throws IOException if the state is malformed or refers to a course the resolver does not know.
+     */
+    public static AccountBase restoreState(byte[] state, Function<String, Course> courseByName) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(state));
+
+        AccountType type = AccountType.values()[input.readByte()];
+        String username = input.readUTF();
+        double balance = input.readDouble();
+        int maxCapacity = input.readInt();
+
+        AccountBase account = switch (type) {
+            case STANDARD -> new StandartAccount(username, balance, maxCapacity);
+            case EDUCATION -> new EducationalAccount(username, balance, maxCapacity);
+            case BUSINESS -> new BusinessAccount(username, balance, BusinessAccount.readCategories(input), maxCapacity);
+        };
+        account.readExtraState(input);
+
+        int courseCount = input.readInt();
+        account.ensureCapacity(courseCount);
+        for (int i = 0; i < courseCount; i++) {
+            account.enrollments[account.courseCounter++] = Enrollment.readState(input, courseByName);
+        }
+
+        return account;
+    }
+
+    /**
+     * Writes the state specific to the account type. Called under the account's lock.
+     */
+    protected void writeExtraState(DataOutputStream output) throws IOException {
+    }
+
+    /**
+     * Reads back what {@link #writeExtraState(DataOutputStream)} wrote, unless the state is needed to construct the
+     * account and was already read by {@link #restoreState(byte[], Function)}.
+     */
+    protected void readExtraState(DataInputStream input) throws IOException {
+    }
+
     @Override
-    public void buyCourse(Course course)
+    public synchronized void buyCourse(Course course)
         throws InsufficientBalanceException, CourseAlreadyPurchasedException, MaxCourseCapacityReachedException {
+        if (course == null) {
+            throw new IllegalArgumentException("Course can't be null!");
+        }
 
-        if (this.balance < course.getPrice()) {
-            throw new InsufficientBalanceException(
-                "Account %s cannot buy course %s due to insufficient balance.".formatted(username, course));
+        purchase(new Course[] {course});
+    }
+
+    @Override
+    public synchronized void buyCourses(Course[] cart)
+        throws InsufficientBalanceException, CourseAlreadyPurchasedException, MaxCourseCapacityReachedException {
+        if (cart == null || cart.length == 0) {
+            throw new IllegalArgumentException("Cart can't be null or empty!");
         }
 
-        if (course.isPurchased()) {
-            throw new CourseAlreadyPurchasedException("Course %s is already purchased.".formatted(course));
+        for (Course course : cart) {
+            if (course == null) {
+                throw new IllegalArgumentException("Cart can't contain null courses!");
+            }
         }
 
-        if (this.courseCounter == MAX_CAPACITY) {
+        purchase(cart);
+    }
+
+    /**
+     * Validates and pays for the cart. The balance is checked against the discounted prices the account would
+     * actually be charged, so a single course and a cart of one course are accepted or rejected alike.
+     */
+    private void purchase(Course[] cart)
+        throws InsufficientBalanceException, CourseAlreadyPurchasedException, MaxCourseCapacityReachedException {
+        for (int i = 0; i < cart.length; i++) {
+            if (findEnrollment(cart[i]) != null || appearsBefore(cart, i)) {
+                throw new CourseAlreadyPurchasedException(
+                    "Course %s is already purchased.".formatted(cart[i].getName()));
+            }
+        }
+
+        if (this.courseCounter + cart.length > this.maxCapacity) {
             throw new MaxCourseCapacityReachedException("Maximum capacity reached.");
         }
 
-        double newPrice = applyDiscount(course);
-        this.balance -= newPrice;
+        double total = 0;
+        for (double price : quote(cart)) {
+            total += price;
+        }
+
+        if (this.balance < total) {
+            String bought = cart.length == 1 ? "course " + cart[0].getName() : cart.length + " courses";
+            throw new InsufficientBalanceException(
+                "Account %s cannot buy %s due to insufficient balance.".formatted(username, bought));
+        }
+
+        AccountEventListener listener = this.eventListener;
+        if (listener != null) {
+            listener.onPurchase(this, cart, total);
+        }
+
+        this.balance -= total;
+        ensureCapacity(this.courseCounter + cart.length);
+        for (Course course : cart) {
+            addOwnedCourse(course);
+        }
+
+        onCartPurchased();
+    }
+
+    /**
+     * Re-applies a purchase recorded by an {@link AccountEventListener}: charges the recorded amount and adds
+     * the courses without validating them again or notifying the listener. Used to rebuild state from a journal.
+     */
+    public synchronized void restorePurchase(Course[] courses, double charged) {
+        this.balance -= charged;
+        ensureCapacity(this.courseCounter + courses.length);
+        for (Course course : courses) {
+            addOwnedCourse(course);
+        }
+
+        onCartPurchased();
+    }
+
+    /**
+     * Returns the price the account would pay for each course of the cart, without changing the account's state.
+     * Throws IllegalArgumentException if the account is not allowed to buy one of the courses.
+     */
+    protected double[] quote(Course[] cart) {
+        double[] prices = new double[cart.length];
+        for (int i = 0; i < cart.length; i++) {
+            prices[i] = applyDiscount(cart[i]);
+        }
+
+        return prices;
+    }
+
+    /**
+     * Called after a cart has been paid for, while the account's lock is still held.
+     */
+    protected void onCartPurchased() {
+    }
+
+    private void addOwnedCourse(Course course) {
+        ensureCapacity(this.courseCounter + 1);
 
-        Course courseToAdd = new Course(course);
-        this.courses[this.courseCounter++] = courseToAdd;
-        courseToAdd.purchase();
+        this.enrollments[this.courseCounter++] = new Enrollment(course);
+    }
+
+    private void ensureCapacity(int required) {
+        int length = this.enrollments == null ? 0 : this.enrollments.length;
+        if (required <= length) {
+            return;
+        }
+
+        int newLength = Math.max(length, INITIAL_CAPACITY);
+        while (newLength < required) {
+            newLength *= 2;
+        }
+
+        Enrollment[] grown = new Enrollment[Math.min(newLength, Math.max(this.maxCapacity, required))];
+        if (this.enrollments != null) {
+            System.arraycopy(this.enrollments, 0, grown, 0, this.courseCounter);
+        }
+
+        this.enrollments = grown;
+    }
+
+    private static boolean appearsBefore(Course[] cart, int index) {
+        for (int i = 0; i < index; i++) {
+            if (isSameCourse(cart[i], cart[index])) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private Enrollment findEnrollment(Course course) {
+        for (int i = 0; i < this.courseCounter; i++) {
+            if (isSameCourse(this.enrollments[i].getCourse(), course)) {
+                return this.enrollments[i];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Courses are identified by name, which unlike the price does not change while a course is in the catalog,
+     * so an owned course is recognised in every later version of the catalog. The catalog does not reuse a name
+     * while it is taken, but a course added after the owned one was removed may reuse it, and then counts as
+     * owned as well.
+     */
+    private static boolean isSameCourse(Course owned, Course course) {
+        return Objects.equals(owned.getName(), course.getName());
+    }
+
+    /**
+     * Returns the courses the account owns, in the order they were bought.
+     */
+    public synchronized Course[] getOwnedCourses() {
+        Course[] owned = new Course[this.courseCounter];
+        for (int i = 0; i < owned.length; i++) {
+            owned[i] = this.enrollments[i].getCourse();
+        }
+
+        return owned;
+    }
+
+    /**
+     * Returns the account's progress in the given course, or null if the account has not purchased it.
+     * Any version of the course matches, for example the one bought before it was repriced.
+     */
+    public synchronized Enrollment getEnrollment(Course course) {
+        return findEnrollment(course);
     }
 
     @Override
-    public void completeResourcesFromCourse(Course course, Resource[] resourcesToComplete)
+    public synchronized void completeResourcesFromCourse(Course course, Resource[] resourcesToComplete)
         throws CourseNotPurchasedException, ResourceNotFoundException {
-        if (course == null || resourcesToComplete.length == 0) {
+        if (course == null || resourcesToComplete == null || resourcesToComplete.length == 0) {
             throw new IllegalArgumentException("Course or resources are null!");
         }
 
-        if (!course.isPurchased()) {
+        Enrollment enrollment = findEnrollment(course);
+        if (enrollment == null) {
             throw new CourseNotPurchasedException("Course %s is not purchased.".formatted(course.getName()));
         }
 
-        for (Resource resourceToComplete : resourcesToComplete) {
-            course.completeResource(resourceToComplete);
+        int[] positions = enrollment.positionsOf(resourcesToComplete);
+
+        AccountEventListener listener = this.eventListener;
+        if (listener != null) {
+            listener.onResourcesCompleted(this, course, resourcesToComplete);
         }
+
+        enrollment.completeResources(positions);
     }
 
     @Override
-    public void completeCourse(Course course, double grade)
+    public synchronized void completeCourse(Course course, double grade)
         throws CourseNotPurchasedException, CourseNotCompletedException, ResourceNotFoundException {
         if (grade < MIN_GRADE || grade > MAX_GRADE) {
             throw new IllegalArgumentException("Invalid grade!");
@@ -102,28 +383,35 @@ public abstract class AccountBase implements Account {
             throw new IllegalArgumentException("Course cannot be null!");
         }
 
-        if (!course.isPurchased()) {
-            throw new CourseNotPurchasedException("Course %s is not yet purchased.".formatted(course));
+        Enrollment enrollment = findEnrollment(course);
+        if (enrollment == null) {
+            throw new CourseNotPurchasedException("Course %s is not yet purchased.".formatted(course.getName()));
         }
 
-        completeResourcesFromCourse(course, course.getContent());
+        int[] positions = enrollment.positionsOf(course.getContent());
+        if (!enrollment.isCompletedWith(positions)) {
+            throw new CourseNotCompletedException("Course %s is not yet completed.".formatted(course.getName()));
+        }
 
-        if (!course.isCompleted()) {
-            throw new CourseNotCompletedException("Course %s is not yet completed.".formatted(course));
+        AccountEventListener listener = this.eventListener;
+        if (listener != null) {
+            listener.onCourseCompleted(this, course, grade);
         }
 
-        course.setGrade(grade);
+        enrollment.completeResources(positions);
+        enrollment.setGrade(grade);
     }
 
     @Override
-    public Course getLeastCompletedCourse() {
+    public synchronized Course getLeastCompletedCourse() {
         int mimCompletionPercentage = 101;
         Course leastCompletedCourse = null;
 
-        for (Course course : this.courses) {
-            if (course.getCompletionPercentage() < mimCompletionPercentage) {
-                mimCompletionPercentage = course.getCompletionPercentage();
-                leastCompletedCourse = course;
+        for (int i = 0; i < this.courseCounter; i++) {
+            Enrollment enrollment = this.enrollments[i];
+            if (enrollment.getCompletionPercentage() < mimCompletionPercentage) {
+                mimCompletionPercentage = enrollment.getCompletionPercentage();
+                leastCompletedCourse = enrollment.getCourse();
             }
         }
 
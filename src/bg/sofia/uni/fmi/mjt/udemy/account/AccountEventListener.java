@@ -0,0 +1,35 @@
+package bg.sofia.uni.fmi.mjt.udemy.account;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.Resource;
+
+/**
+ * Receives every change of an account's state, ahead of it: the methods are called once the change has been
+ * validated and before it is applied, and a listener which throws prevents the change.
+ * The methods are called while the account's lock is held, so events of one account arrive in the order
+ * they are applied; implementations should return quickly and must not call back into the account.
+ */
+public interface AccountEventListener {
+
+    /**
+     * Called before the given amount is added to the account's balance.
+     */
+    void onTopUp(Account account, double amount);
+
+    /**
+     * Called before the given courses are bought by the account.
+     *
+     * @param charged the amount to subtract from the balance for all courses, after discounts.
+     */
+    void onPurchase(Account account, Course[] courses, double charged);
+
+    /**
+     * Called before the given resources of the course are completed by the account.
+     */
+    void onResourcesCompleted(Account account, Course course, Resource[] resources);
+
+    /**
+     * Called before the course is completed by the account with the given grade.
+     */
+    void onCourseCompleted(Account account, Course course, double grade);
+}
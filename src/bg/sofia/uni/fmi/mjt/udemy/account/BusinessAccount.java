@@ -4,6 +4,10 @@ import bg.sofia.uni.fmi.mjt.udemy.account.type.AccountType;
 import bg.sofia.uni.fmi.mjt.udemy.course.Category;
 import bg.sofia.uni.fmi.mjt.udemy.course.Course;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 public class BusinessAccount extends AccountBase {
 
     private final Category[] allowedCategories;
@@ -13,6 +17,36 @@ public class BusinessAccount extends AccountBase {
         this.allowedCategories = allowedCategories;
     }
 
+    public BusinessAccount(String username, double balance, Category[] allowedCategories, int maxCapacity) {
+        super(username, balance, maxCapacity);
+        this.allowedCategories = allowedCategories;
+    }
+
+    @Override
+    protected AccountType getAccountType() {
+        return AccountType.BUSINESS;
+    }
+
+    /**
+     * Writes the allowed categories, which {@link AccountBase#restoreState} reads back to construct the account.
+     */
+    @Override
+    protected void writeExtraState(DataOutputStream output) throws IOException {
+        output.writeInt(allowedCategories.length);
+        for (Category category : allowedCategories) {
+            output.writeByte(category.ordinal());
+        }
+    }
+
+    static Category[] readCategories(DataInputStream input) throws IOException {
+        Category[] categories = new Category[input.readInt()];
+        for (int i = 0; i < categories.length; i++) {
+            categories[i] = Category.values()[input.readByte()];
+        }
+
+        return categories;
+    }
+
     private boolean isCategoryValid(Category category) {
         for (Category object : allowedCategories) {
             if (category.equals(object))
@@ -7,6 +7,10 @@ import bg.sofia.uni.fmi.mjt.udemy.exception.CourseNotFoundException;
 import bg.sofia.uni.fmi.mjt.udemy.exception.CourseNotPurchasedException;
 import bg.sofia.uni.fmi.mjt.udemy.exception.ResourceNotFoundException;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 public class EducationalAccount extends AccountBase {
 
     private final int PREVIOUS_GRADES_COUNT = 5;
@@ -17,26 +21,71 @@ public class EducationalAccount extends AccountBase {
     private boolean discountEligibilityCount;
 
     public EducationalAccount(String username, double balance) {
-        super(username, balance);
+        this(username, balance, DEFAULT_MAX_CAPACITY);
+    }
+
+    public EducationalAccount(String username, double balance, int maxCapacity) {
+        super(username, balance, maxCapacity);
         this.grades = new double[PREVIOUS_GRADES_COUNT];
         this.gradesCounter = 0;
         this.discountEligibilityCount = false;
     }
 
     @Override
-    public double applyDiscount(Course course) {
-        double coursePrice = course.getPrice();
+    protected AccountType getAccountType() {
+        return AccountType.EDUCATION;
+    }
 
-        if (discountEligibilityCount) {
-            discountEligibilityCount = false;
-            return coursePrice - coursePrice * AccountType.STANDARD.getDiscount();
+    @Override
+    protected void writeExtraState(DataOutputStream output) throws IOException {
+        for (double grade : grades) {
+            output.writeDouble(grade);
+        }
+        output.writeInt(gradesCounter);
+        output.writeBoolean(discountEligibilityCount);
+    }
+
+    @Override
+    protected void readExtraState(DataInputStream input) throws IOException {
+        for (int i = 0; i < grades.length; i++) {
+            grades[i] = input.readDouble();
         }
+        gradesCounter = input.readInt();
+        discountEligibilityCount = input.readBoolean();
+    }
 
+    @Override
+    public double applyDiscount(Course course) {
+        double coursePrice = priceFor(course, discountEligibilityCount);
+        discountEligibilityCount = false;
         return coursePrice;
     }
 
+    /**
+     * The one-shot discount goes to the first course of the cart only.
+     */
+    @Override
+    protected double[] quote(Course[] cart) {
+        double[] prices = new double[cart.length];
+        for (int i = 0; i < cart.length; i++) {
+            prices[i] = priceFor(cart[i], i == 0 && discountEligibilityCount);
+        }
+
+        return prices;
+    }
+
+    @Override
+    protected void onCartPurchased() {
+        discountEligibilityCount = false;
+    }
+
+    private double priceFor(Course course, boolean discounted) {
+        double coursePrice = course.getPrice();
+        return discounted ? coursePrice - coursePrice * AccountType.STANDARD.getDiscount() : coursePrice;
+    }
+
     @Override
-    public void completeCourse(Course course, double grade)
+    public synchronized void completeCourse(Course course, double grade)
         throws CourseNotPurchasedException, CourseNotCompletedException, ResourceNotFoundException {
 
         super.completeCourse(course, grade);
@@ -52,7 +101,7 @@ public class EducationalAccount extends AccountBase {
         }
     }
 
-    public double getAvarageGradeFromPreviousCourse() {
+    public synchronized double getAvarageGradeFromPreviousCourse() {
         double sum = 0;
 
         for (double grade : grades) {
@@ -0,0 +1,144 @@
+package bg.sofia.uni.fmi.mjt.udemy.account;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Completable;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.Resource;
+import bg.sofia.uni.fmi.mjt.udemy.exception.ResourceNotFoundException;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.function.Function;
+
+/**
+ * The progress of one account in one course.
+ * The course itself is shared catalog data and is never modified; completed resources are kept
+ * as a bitset over the positions of the course's content.
+ */
+public class Enrollment implements Completable {
+    private static final int BITS_PER_WORD = 64;
+
+    private final Course course;
+    private final long[] completedResources;
+    private int completedCount;
+    private boolean isGraded;
+    private double grade;
+
+    Enrollment(Course course) {
+        this.course = course;
+        this.completedResources = new long[(course.getResourceCount() + BITS_PER_WORD - 1) / BITS_PER_WORD];
+        this.completedCount = 0;
+        this.isGraded = false;
+        this.grade = 0.0;
+    }
+
+    private Enrollment(Course course, long[] completedResources, boolean isGraded, double grade) {
+        this.course = course;
+        this.completedResources = completedResources;
+        this.isGraded = isGraded;
+        this.grade = grade;
+
+        int count = 0;
+        for (long word : completedResources) {
+            count += Long.bitCount(word);
+        }
+        this.completedCount = count;
+    }
+
+    void writeState(DataOutputStream output) throws IOException {
+        output.writeUTF(course.getName());
+        output.writeInt(completedResources.length);
+        for (long word : completedResources) {
+            output.writeLong(word);
+        }
+        output.writeBoolean(isGraded);
+        output.writeDouble(grade);
+    }
+
+    static Enrollment readState(DataInputStream input, Function<String, Course> courseByName) throws IOException {
+        String courseName = input.readUTF();
+        Course course = courseByName.apply(courseName);
+        if (course == null) {
+            throw new IOException("Course %s of a captured enrollment is not in the catalog.".formatted(courseName));
+        }
+
+        long[] completedResources = new long[input.readInt()];
+        for (int i = 0; i < completedResources.length; i++) {
+            completedResources[i] = input.readLong();
+        }
+
+        return new Enrollment(course, completedResources, input.readBoolean(), input.readDouble());
+    }
+
+    public Course getCourse() {
+        return course;
+    }
+
+    public double getGrade() {
+        return grade;
+    }
+
+    public boolean isResourceCompleted(int position) {
+        return (completedResources[position / BITS_PER_WORD] & (1L << position)) != 0;
+    }
+
+    /**
+     * Returns the positions of the resources in the course's content without changing the progress.
+     *
+     * @throws ResourceNotFoundException if the course does not contain one of the resources.
+     */
+    int[] positionsOf(Resource[] resources) throws ResourceNotFoundException {
+        int[] positions = new int[resources.length];
+        for (int i = 0; i < resources.length; i++) {
+            positions[i] = course.indexOf(resources[i]);
+            if (positions[i] < 0) {
+                throw new ResourceNotFoundException("Resource with name %s could not be found in course %s"
+                    .formatted(resources[i].getName(), course.getName()));
+            }
+        }
+
+        return positions;
+    }
+
+    /**
+     * Returns whether the course would be completed once the resources at the given positions are.
+     */
+    boolean isCompletedWith(int[] positions) {
+        long[] completed = completedResources.clone();
+        int count = completedCount;
+        for (int position : positions) {
+            long bit = 1L << position;
+            if ((completed[position / BITS_PER_WORD] & bit) == 0) {
+                completed[position / BITS_PER_WORD] |= bit;
+                count++;
+            }
+        }
+
+        return isGraded || count == course.getResourceCount();
+    }
+
+    void completeResources(int[] positions) {
+        for (int position : positions) {
+            if (!isResourceCompleted(position)) {
+                completedResources[position / BITS_PER_WORD] |= 1L << position;
+                completedCount++;
+            }
+        }
+    }
+
+    void setGrade(double grade) {
+        this.grade = grade;
+        this.isGraded = true;
+    }
+
+    @Override
+    public boolean isCompleted() {
+        return isGraded || completedCount == course.getResourceCount();
+    }
+
+    @Override
+    public int getCompletionPercentage() {
+        int totalResources = course.getResourceCount();
+        return completedCount == 0 ? 0 : (int) Math.round(100.0 * completedCount / totalResources);
+    }
+}
@@ -9,6 +9,15 @@ public class StandartAccount extends AccountBase {
         super(username, balance);
     }
 
+    public StandartAccount(String username, double balance, int maxCapacity) {
+        super(username, balance, maxCapacity);
+    }
+
+    @Override
+    protected AccountType getAccountType() {
+        return AccountType.STANDARD;
+    }
+
     @Override
     public double applyDiscount(Course course) {
         return course.getPrice() - course.getPrice() * AccountType.STANDARD.getDiscount();
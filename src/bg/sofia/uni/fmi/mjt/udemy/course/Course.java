@@ -4,9 +4,12 @@ import bg.sofia.uni.fmi.mjt.udemy.course.duration.CourseDuration;
 import bg.sofia.uni.fmi.mjt.udemy.exception.ResourceNotFoundException;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 public class Course implements Completable, Purchasable {
+    private static final int BITS_PER_WORD = 64;
 
     private final String name;
     private final String description;
@@ -14,7 +17,11 @@ public class Course implements Completable, Purchasable {
     private final Resource[] content;
     private final Category category;
     private final CourseDuration totalTime;
-    private boolean isPurchased;
+    private final int resourceCount;
+    private volatile Map<String, Integer> resourcePositions;
+    private final long[] completedResources;
+    private int completedCount;
+    private volatile boolean isPurchased;
     private boolean isCompleted;
     private double grade;
 
@@ -25,23 +32,71 @@ public class Course implements Completable, Purchasable {
         this.content = content;
         this.category = category;
         this.totalTime = CourseDuration.of(content);
+        this.resourceCount = content.length;
+        this.resourcePositions = positionsOf(content);
+        this.completedResources = new long[(content.length + BITS_PER_WORD - 1) / BITS_PER_WORD];
+        this.completedCount = 0;
+        this.isPurchased = false;
+        this.isCompleted = false;
+        this.grade = 0.0;
+
+        for (int i = 0; i < content.length; i++) {
+            if (content[i].isCompleted()) {
+                markCompleted(i);
+            }
+        }
+    }
+
+    /**
+     * Creates a course which catalog data is supplied by a subclass overriding
+     * {@link #getName()}, {@link #getDescription()}, {@link #getPrice()}, {@link #getContent()},
+     * {@link #getCategory()} and {@link #getTotalTime()}, for example a view over serialized data.
+     *
+     * @param resourceCount the number of resources the overridden {@link #getContent()} returns.
+     */
+    protected Course(int resourceCount) {
+        this.name = null;
+        this.description = null;
+        this.price = 0.0;
+        this.content = null;
+        this.category = null;
+        this.totalTime = null;
+        this.resourceCount = resourceCount;
+        this.resourcePositions = null;
+        this.completedResources = new long[(resourceCount + BITS_PER_WORD - 1) / BITS_PER_WORD];
+        this.completedCount = 0;
         this.isPurchased = false;
         this.isCompleted = false;
         this.grade = 0.0;
     }
 
     public Course(Course otherCourse) {
-        this.name = otherCourse.name;
-        this.description = otherCourse.description;
-        this.price = otherCourse.price;
-        this.content = Arrays.copyOf(otherCourse.content, otherCourse.content.length);
-        this.category = otherCourse.category;
-        this.totalTime = otherCourse.totalTime;
+        this(otherCourse, otherCourse.getPrice());
+    }
+
+    private Course(Course otherCourse, double price) {
+        this.name = otherCourse.getName();
+        this.description = otherCourse.getDescription();
+        this.price = price;
+        this.content = Arrays.copyOf(otherCourse.getContent(), otherCourse.resourceCount);
+        this.category = otherCourse.getCategory();
+        this.totalTime = otherCourse.getTotalTime();
+        this.resourceCount = otherCourse.resourceCount;
+        this.resourcePositions = otherCourse.resourcePositions();
+        this.completedResources = otherCourse.completedResources.clone();
+        this.completedCount = otherCourse.completedCount;
         this.isPurchased = otherCourse.isPurchased;
         this.isCompleted = otherCourse.isCompleted;
         this.grade = otherCourse.grade;
     }
 
+    /**
+     * Returns a copy of this course with the given price and otherwise the same catalog data and progress.
+     */
+    public Course withPrice(double newPrice) {
+        return new Course(this, newPrice);
+    }
+
     public String getName() {
         return name;
     }
@@ -66,6 +121,10 @@ public class Course implements Completable, Purchasable {
         return totalTime;
     }
 
+    public int getResourceCount() {
+        return resourceCount;
+    }
+
     public double getGrade() {
         return grade;
     }
@@ -77,33 +136,12 @@ public class Course implements Completable, Purchasable {
 
     @Override
     public boolean isCompleted() {
-        if (this.isCompleted) {
-            return true;
-        }
-
-        for (Resource resource : content) {
-            if (!resource.isCompleted()) {
-                return false;
-            }
-        }
-
-        return true;
+        return this.isCompleted || completedCount == resourceCount;
     }
 
     @Override
     public int getCompletionPercentage() {
-        int totalCourses = content.length;
-        int completedCourses = 0;
-
-        int completionPercentage = 0;
-        for (Resource resource : content) {
-            if (resource.isCompleted()) {
-                completedCourses++;
-                completionPercentage += resource.getCompletionPercentage();
-            }
-        }
-
-        return completedCourses == 0 ? 0 : (int) Math.round((double) completionPercentage / totalCourses);
+        return completedCount == 0 ? 0 : (int) Math.round(100.0 * completedCount / resourceCount);
     }
 
     @Override
@@ -116,15 +154,50 @@ public class Course implements Completable, Purchasable {
         return isPurchased;
     }
 
+    /**
+     * Returns the position of the resource in the course's content, or -1 if the course does not contain it.
+     */
+    public int indexOf(Resource resource) {
+        Integer position = resourcePositions().get(resource.getName());
+        return position == null ? -1 : position;
+    }
+
+    private Map<String, Integer> resourcePositions() {
+        Map<String, Integer> positions = resourcePositions;
+        if (positions == null) {
+            positions = positionsOf(getContent());
+            resourcePositions = positions;
+        }
+
+        return positions;
+    }
+
+    private static Map<String, Integer> positionsOf(Resource[] content) {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < content.length; i++) {
+            positions.putIfAbsent(content[i].getName(), i);
+        }
+
+        return positions;
+    }
+
     public void completeResource(Resource resourceToComplete) throws ResourceNotFoundException {
-        for (Resource resource : this.content) {
-            if (resource.equals(resourceToComplete)) {
-                resource.complete();
-                return;
-            }
+        int position = indexOf(resourceToComplete);
+        if (position < 0) {
+            throw new ResourceNotFoundException(
+                "Resource with name %s could not be found in course %s".formatted(resourceToComplete.getName(),
+                    getName()));
+        }
+
+        markCompleted(position);
+    }
+
+    private void markCompleted(int position) {
+        long bit = 1L << position;
+        if ((completedResources[position / BITS_PER_WORD] & bit) == 0) {
+            completedResources[position / BITS_PER_WORD] |= bit;
+            completedCount++;
         }
-        throw new ResourceNotFoundException(
-            "Resource with name %s could not be found in course %s".formatted(resourceToComplete.getName(), name));
     }
 
     @Override
@@ -134,9 +207,9 @@ public class Course implements Completable, Purchasable {
         }
 
         if (obj instanceof Course other) {
-            return this.name.equals(other.name) && this.description.equals(other.description) &&
-                this.price == other.price && Arrays.equals(this.content, other.content) &&
-                this.category.equals(other.category) && this.totalTime.equals(other.totalTime);
+            return getName().equals(other.getName()) && getDescription().equals(other.getDescription()) &&
+                getPrice() == other.getPrice() && Arrays.equals(getContent(), other.getContent()) &&
+                getCategory().equals(other.getCategory()) && getTotalTime().equals(other.getTotalTime());
         }
 
         return false;
@@ -144,6 +217,7 @@ public class Course implements Completable, Purchasable {
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, description, price, Arrays.hashCode(content), category, totalTime);
+        return Objects.hash(getName(), getDescription(), getPrice(), Arrays.hashCode(getContent()), getCategory(),
+            getTotalTime());
     }
 }
\ No newline at end of file
@@ -27,9 +27,10 @@ public record CourseDuration(int hours, int minutes) {
     }
 
     public boolean isLongerThan(CourseDuration otherDuration) {
-        int totalMinutes = this.hours * 60 + this.minutes;
-        int otherTotalMinutes = otherDuration.hours * 60 + otherDuration.minutes;
+        return toMinutes() > otherDuration.toMinutes();
+    }
 
-        return totalMinutes > otherTotalMinutes;
+    public int toMinutes() {
+        return hours * 60 + minutes;
     }
 }
@@ -0,0 +1,338 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.query.CourseOrder;
+import bg.sofia.uni.fmi.mjt.udemy.query.CoursePage;
+import bg.sofia.uni.fmi.mjt.udemy.query.PageCursor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.StreamSupport;
+
+/**
+ * Courses grouped by category, with a set per category and {@link CourseOrder}, so the cheapest course,
+ * every page and every price or duration range of a category are found without looking at the rest of it.
+ * The course array of each category is built once and reused until the courses of that category change.
+ * A copy shares its buckets with the original; a bucket keeps its sets in {@link PersistentSortedMap}s, so
+ * changing a course copies O(log n) nodes of each set of its category.
+ */
+public class CategoryIndex {
+    private static final Course[] EMPTY = new Course[0];
+
+    private final Map<Category, Bucket> buckets;
+    private final Set<Category> ownedBuckets;
+
+    public CategoryIndex() {
+        this.buckets = new EnumMap<>(Category.class);
+        this.ownedBuckets = EnumSet.noneOf(Category.class);
+    }
+
+    /**
+     * Creates a copy of the index. The original must not be changed afterwards, as the two share buckets.
+     */
+    public CategoryIndex(CategoryIndex other) {
+        this.buckets = new EnumMap<>(other.buckets);
+        this.ownedBuckets = EnumSet.noneOf(Category.class);
+    }
+
+    /**
+     * Adds the course under the given id, replacing the course previously stored under that id, if any.
+     * The replaced course must be of the same category.
+     */
+    public void add(int id, Course course) {
+        writableBucket(course.getCategory()).add(id, course);
+    }
+
+    /**
+     * Removes the course stored under the given id.
+     */
+    public void remove(int id, Course course) {
+        if (buckets.containsKey(course.getCategory())) {
+            writableBucket(course.getCategory()).remove(id);
+        }
+    }
+
+    private Bucket writableBucket(Category category) {
+        Bucket bucket = buckets.get(category);
+        if (bucket == null) {
+            bucket = new Bucket();
+            buckets.put(category, bucket);
+            ownedBuckets.add(category);
+        } else if (ownedBuckets.add(category)) {
+            bucket = new Bucket(bucket);
+            buckets.put(category, bucket);
+        }
+
+        return bucket;
+    }
+
+    /**
+     * Returns the courses of the category in id order.
+     * The returned array is shared between calls and must not be modified.
+     */
+    public Course[] getCourses(Category category) {
+        Bucket bucket = buckets.get(category);
+        return bucket == null ? EMPTY : bucket.snapshot();
+    }
+
+    /**
+     * Returns up to limit courses of the category in the given order, starting after the cursor if there is one.
+     */
+    public CoursePage getPage(Category category, CourseOrder order, int limit, PageCursor after) {
+        Bucket bucket = buckets.get(category);
+        return bucket == null ? new CoursePage(EMPTY, null) : bucket.page(order, limit, after);
+    }
+
+    /**
+     * Returns the number of courses in the category.
+     */
+    public int size(Category category) {
+        Bucket bucket = buckets.get(category);
+        return bucket == null ? 0 : bucket.size();
+    }
+
+    /**
+     * Returns the number of courses in all categories.
+     */
+    public int size() {
+        int size = 0;
+        for (Bucket bucket : buckets.values()) {
+            size += bucket.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * Returns the ids of the courses in the category, in ascending order.
+     */
+    public int[] ids(Category category) {
+        Bucket bucket = buckets.get(category);
+        return bucket == null ? new int[0] : Bucket.ids(bucket.byId.values());
+    }
+
+    /**
+     * Counts the courses of the category which price is within the bounds, inclusive, stopping at limit.
+     */
+    public int countByPriceRange(Category category, double minPrice, double maxPrice, int limit) {
+        Bucket bucket = buckets.get(category);
+        return bucket == null ? 0 : Bucket.count(priceRange(bucket, minPrice, maxPrice), limit);
+    }
+
+    /**
+     * Counts the courses of the category which total duration in minutes is within the bounds, inclusive,
+     * stopping at limit.
+     */
+    public int countByDurationRange(Category category, int minMinutes, int maxMinutes, int limit) {
+        Bucket bucket = buckets.get(category);
+        return bucket == null ? 0 : Bucket.count(durationRange(bucket, minMinutes, maxMinutes), limit);
+    }
+
+    /**
+     * Returns the ids of the courses of the category which price is within the bounds, inclusive, in price order.
+     */
+    public int[] idsByPriceRange(Category category, double minPrice, double maxPrice) {
+        Bucket bucket = buckets.get(category);
+        return bucket == null ? new int[0] : Bucket.ids(priceRange(bucket, minPrice, maxPrice));
+    }
+
+    /**
+     * Returns the ids of the courses of the category which total duration in minutes is within the bounds,
+     * inclusive, in duration order.
+     */
+    public int[] idsByDurationRange(Category category, int minMinutes, int maxMinutes) {
+        Bucket bucket = buckets.get(category);
+        return bucket == null ? new int[0] : Bucket.ids(durationRange(bucket, minMinutes, maxMinutes));
+    }
+
+    /**
+     * Returns the courses of the category which price is within the bounds, inclusive,
+     * from the cheapest to the most expensive. The bounds are keyed like the prices, so -0.0 and 0.0 are equal.
+     */
+    public Course[] getByPriceRange(Category category, double minPrice, double maxPrice) {
+        Bucket bucket = buckets.get(category);
+        return bucket == null ? EMPTY : Bucket.courses(priceRange(bucket, minPrice, maxPrice));
+    }
+
+    /**
+     * Returns the courses of the category which total duration in minutes is within the bounds, inclusive,
+     * from the shortest to the longest.
+     */
+    public Course[] getByDurationRange(Category category, int minMinutes, int maxMinutes) {
+        Bucket bucket = buckets.get(category);
+        return bucket == null ? EMPTY : Bucket.courses(durationRange(bucket, minMinutes, maxMinutes));
+    }
+
+    private static Iterable<IndexedCourse> priceRange(Bucket bucket, double minPrice, double maxPrice) {
+        return bucket.range(CourseOrder.PRICE,
+            IndexedCourse.bound(Integer.MIN_VALUE, minPrice, 0),
+            IndexedCourse.bound(Integer.MAX_VALUE, maxPrice, 0));
+    }
+
+    private static Iterable<IndexedCourse> durationRange(Bucket bucket, int minMinutes, int maxMinutes) {
+        return bucket.range(CourseOrder.DURATION,
+            IndexedCourse.bound(Integer.MIN_VALUE, 0, minMinutes),
+            IndexedCourse.bound(Integer.MAX_VALUE, 0, maxMinutes));
+    }
+
+    /**
+     * Returns the cheapest course of the category, the one with the lowest id on equal prices,
+     * or null if the category has no courses.
+     */
+    public Course getCheapest(Category category) {
+        Bucket bucket = buckets.get(category);
+        return bucket == null ? null : bucket.cheapest();
+    }
+
+    /**
+     * A course with the keys it is sorted by, so that range bounds can be expressed without a course.
+     * The price is a {@link CourseOrder#priceKey}, so -0.0 and 0.0 tie.
+     */
+    private record IndexedCourse(int id, Course course, double price, int minutes) {
+
+        IndexedCourse(int id, Course course) {
+            this(id, course, CourseOrder.priceKey(course.getPrice()), course.getTotalTime().toMinutes());
+        }
+
+        static IndexedCourse bound(int id, double price, int minutes) {
+            return new IndexedCourse(id, null, CourseOrder.priceKey(price), minutes);
+        }
+
+        /**
+         * Returns the comparator sorting the courses the same way {@link CourseOrder#compare} does.
+         */
+        static Comparator<IndexedCourse> comparator(CourseOrder order) {
+            return switch (order) {
+                case PRICE -> Comparator.comparingDouble(IndexedCourse::price).thenComparingInt(IndexedCourse::id);
+                case DURATION -> Comparator.comparingInt(IndexedCourse::minutes).thenComparingInt(IndexedCourse::id);
+                case NAME -> (left, right) -> order.compare(left.id(), left.course(), right.id(), right.course());
+            };
+        }
+    }
+
+    private static class Bucket {
+        private final PersistentSortedMap<Integer, IndexedCourse> byId;
+        private final Map<CourseOrder, PersistentSortedMap<IndexedCourse, IndexedCourse>> sorted;
+        private volatile Course[] snapshot;
+
+        Bucket() {
+            this.byId = new PersistentSortedMap<>(Comparator.naturalOrder());
+            this.sorted = new EnumMap<>(CourseOrder.class);
+            this.snapshot = null;
+
+            for (CourseOrder order : CourseOrder.values()) {
+                sorted.put(order, new PersistentSortedMap<>(IndexedCourse.comparator(order)));
+            }
+        }
+
+        /**
+         * Creates a copy of the bucket. The original must not be changed afterwards, as the two share nodes.
+         */
+        Bucket(Bucket other) {
+            this.byId = new PersistentSortedMap<>(other.byId);
+            this.sorted = new EnumMap<>(CourseOrder.class);
+            this.snapshot = other.snapshot;
+
+            for (CourseOrder order : CourseOrder.values()) {
+                sorted.put(order, new PersistentSortedMap<>(other.sorted.get(order)));
+            }
+        }
+
+        void add(int id, Course course) {
+            IndexedCourse indexed = new IndexedCourse(id, course);
+            IndexedCourse replaced = byId.get(id);
+            byId.put(id, indexed);
+
+            for (PersistentSortedMap<IndexedCourse, IndexedCourse> courses : sorted.values()) {
+                if (replaced != null) {
+                    courses.remove(replaced);
+                }
+                courses.put(indexed, indexed);
+            }
+
+            snapshot = null;
+        }
+
+        void remove(int id) {
+            IndexedCourse removed = byId.remove(id);
+            if (removed != null) {
+                for (PersistentSortedMap<IndexedCourse, IndexedCourse> courses : sorted.values()) {
+                    courses.remove(removed);
+                }
+                snapshot = null;
+            }
+        }
+
+        int size() {
+            return byId.size();
+        }
+
+        Course[] snapshot() {
+            Course[] courses = snapshot;
+            if (courses == null) {
+                courses = courses(byId.values());
+                snapshot = courses;
+            }
+
+            return courses;
+        }
+
+        CoursePage page(CourseOrder order, int limit, PageCursor after) {
+            IndexedCourse from = after == null ? null : new IndexedCourse(after.id(), after.last());
+            Iterable<IndexedCourse> courses = sorted.get(order).values(from, false, null, true);
+
+            List<IndexedCourse> page = new ArrayList<>();
+            boolean hasMore = false;
+            for (IndexedCourse indexed : courses) {
+                if (page.size() == limit) {
+                    hasMore = true;
+                    break;
+                }
+                page.add(indexed);
+            }
+
+            IndexedCourse last = page.isEmpty() ? null : page.get(page.size() - 1);
+            PageCursor next = hasMore ? new PageCursor(order, last.id(), last.course()) : null;
+            return new CoursePage(page.stream().map(IndexedCourse::course).toArray(Course[]::new), next);
+        }
+
+        Iterable<IndexedCourse> range(CourseOrder order, IndexedCourse from, IndexedCourse to) {
+            return sorted.get(order).values(from, true, to, true);
+        }
+
+        static int count(Iterable<IndexedCourse> courses, int limit) {
+            int count = 0;
+            for (Iterator<IndexedCourse> iterator = courses.iterator(); count < limit && iterator.hasNext(); count++) {
+                iterator.next();
+            }
+
+            return count;
+        }
+
+        static Course[] courses(Iterable<IndexedCourse> courses) {
+            return StreamSupport.stream(courses.spliterator(), false).map(IndexedCourse::course)
+                .toArray(Course[]::new);
+        }
+
+        static int[] ids(Iterable<IndexedCourse> courses) {
+            return StreamSupport.stream(courses.spliterator(), false).mapToInt(IndexedCourse::id).toArray();
+        }
+
+        Course cheapest() {
+            Map.Entry<IndexedCourse, IndexedCourse> first = sorted.get(CourseOrder.PRICE).firstEntry();
+            if (first == null) {
+                return null;
+            }
+
+            IndexedCourse top = first.getValue();
+            return top.price() < Double.MAX_VALUE ? top.course() : null;
+        }
+    }
+}
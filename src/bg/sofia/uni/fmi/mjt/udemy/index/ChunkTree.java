@@ -0,0 +1,139 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * The chunks of a growable array, {@value #CHUNK_SIZE} elements each, kept as the leaves of a tree with
+ * {@value #BRANCHING} children per node and found by chunk number. Like {@link PersistentSortedMap}, a copy shares
+ * every node and chunk with the original, and a change copies only the chunk and the O(log n) nodes above it which
+ * the tree does not own yet, so changing one element copies O(chunk) data.
+ * The original must not be changed once a copy has been made from it.
+ *
+ * @param <C> the chunk type, such as an array of {@value #CHUNK_SIZE} elements or a few parallel ones.
+ */
+public final class ChunkTree<C> {
+    public static final int CHUNK_BITS = 10;
+    public static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int BRANCH_BITS = 5;
+    private static final int BRANCHING = 1 << BRANCH_BITS;
+
+    private final Supplier<C> newChunk;
+    private final UnaryOperator<C> copyChunk;
+    private final Object owner;
+    private Branch root;
+    private int height;
+
+    /**
+     * Creates an empty tree.
+     *
+     * @param newChunk  creates an empty chunk.
+     * @param copyChunk copies a chunk, so that the copy can be changed without changing the original.
+     */
+    public ChunkTree(Supplier<C> newChunk, UnaryOperator<C> copyChunk) {
+        this.newChunk = newChunk;
+        this.copyChunk = copyChunk;
+        this.owner = new Object();
+        this.root = new Branch(owner, new Object[BRANCHING]);
+        this.height = 1;
+    }
+
+    /**
+     * Creates a copy of the tree. The original must not be changed afterwards, as the two share chunks.
+     */
+    public ChunkTree(ChunkTree<C> other) {
+        this.newChunk = other.newChunk;
+        this.copyChunk = other.copyChunk;
+        this.owner = new Object();
+        this.root = other.root;
+        this.height = other.height;
+    }
+
+    /**
+     * Returns the chunk with the given number, or null if it was never written to.
+     * The chunk must not be changed.
+     */
+    public C chunk(int index) {
+        if (!fits(index)) {
+            return null;
+        }
+
+        Branch branch = root;
+        for (int level = height - 1; level > 0 && branch != null; level--) {
+            branch = (Branch) branch.children[slot(index, level)];
+        }
+
+        return branch == null ? null : chunkAt(branch, slot(index, 0));
+    }
+
+    /**
+     * Returns the chunk with the given number which this tree may change, creating it or copying a shared one.
+     */
+    public C writableChunk(int index) {
+        while (!fits(index)) {
+            Branch grown = new Branch(owner, new Object[BRANCHING]);
+            grown.children[0] = root;
+            root = grown;
+            height++;
+        }
+
+        root = writable(root);
+        Branch branch = root;
+        for (int level = height - 1; level > 0; level--) {
+            int slot = slot(index, level);
+            Branch child = (Branch) branch.children[slot];
+            child = child == null ? new Branch(owner, new Object[BRANCHING]) : writable(child);
+            branch.children[slot] = child;
+            branch = child;
+        }
+
+        int slot = slot(index, 0);
+        Leaf leaf = (Leaf) branch.children[slot];
+        if (leaf == null) {
+            leaf = new Leaf(owner, newChunk.get());
+            branch.children[slot] = leaf;
+        } else if (leaf.owner != owner) {
+            leaf = new Leaf(owner, copyChunk.apply(chunkOf(leaf)));
+            branch.children[slot] = leaf;
+        }
+
+        return chunkOf(leaf);
+    }
+
+    private boolean fits(int index) {
+        return BRANCH_BITS * height >= Integer.SIZE || index >>> (BRANCH_BITS * height) == 0;
+    }
+
+    /**
+     * Returns which child of a node of the given level, counted from the bottom, leads to the chunk.
+     */
+    private static int slot(int index, int level) {
+        return index >>> (BRANCH_BITS * level) & (BRANCHING - 1);
+    }
+
+    /**
+     * Returns the branch if this tree owns it, otherwise a copy of it which this tree owns.
+     */
+    private Branch writable(Branch branch) {
+        return branch.owner == owner ? branch : new Branch(owner, branch.children.clone());
+    }
+
+    private C chunkAt(Branch branch, int slot) {
+        Leaf leaf = (Leaf) branch.children[slot];
+        return leaf == null ? null : chunkOf(leaf);
+    }
+
+    @SuppressWarnings("unchecked")
+    private C chunkOf(Leaf leaf) {
+        return (C) leaf.chunk;
+    }
+
+    /**
+     * An inner node: its children are branches, or leaves at the bottom level.
+     */
+    private record Branch(Object owner, Object[] children) {
+    }
+
+    private record Leaf(Object owner, Object chunk) {
+    }
+}
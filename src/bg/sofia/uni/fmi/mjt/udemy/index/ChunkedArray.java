@@ -0,0 +1,33 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+/**
+ * A growable array of references kept in a {@link ChunkTree}, so a copy is made in O(1) and setting an element
+ * copies at most one chunk and the O(log n) nodes above it. Elements never set are null.
+ * The original must not be changed once a copy has been made from it.
+ */
+public final class ChunkedArray<T> {
+    private static final int INDEX_MASK = ChunkTree.CHUNK_SIZE - 1;
+
+    private final ChunkTree<Object[]> chunks;
+
+    public ChunkedArray() {
+        this.chunks = new ChunkTree<>(() -> new Object[ChunkTree.CHUNK_SIZE], Object[]::clone);
+    }
+
+    /**
+     * Creates a copy of the array. The original must not be changed afterwards, as the two share chunks.
+     */
+    public ChunkedArray(ChunkedArray<T> other) {
+        this.chunks = new ChunkTree<>(other.chunks);
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        Object[] chunk = chunks.chunk(index >>> ChunkTree.CHUNK_BITS);
+        return chunk == null ? null : (T) chunk[index & INDEX_MASK];
+    }
+
+    public void set(int index, T element) {
+        chunks.writableChunk(index >>> ChunkTree.CHUNK_BITS)[index & INDEX_MASK] = element;
+    }
+}
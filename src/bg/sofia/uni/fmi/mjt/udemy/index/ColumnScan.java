@@ -0,0 +1,43 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+/**
+ * The filtering loop behind {@link CourseColumns#scan}. The scalar loop is always available; a loop using the
+ * incubating Vector API is used instead when the {@code jdk.incubator.vector} module is present at runtime
+ * ({@code --add-modules jdk.incubator.vector}) and the optional {@code vector} source root is on the class path.
+ * Both return exactly the same ids. Setting the system property {@value #VECTOR_PROPERTY} to {@code false}
+ * forces the scalar loop.
+ */
+interface ColumnScan {
+    String VECTOR_PROPERTY = "udemy.vectorScans";
+    String VECTOR_MODULE = "jdk.incubator.vector";
+    String VECTOR_SCAN = "bg.sofia.uni.fmi.mjt.udemy.index.VectorColumnScan";
+
+    /**
+     * Writes to the start of matching, in ascending order, the ids below size of the present courses within both
+     * ranges and, unless categoryMask is 0, in one of its categories, and returns their count. A price range from
+     * negative to positive infinity matches every price, NaN included.
+     */
+    int scan(double[] prices, int[] minutes, byte[] categories, int size, int categoryMask, double minPrice,
+             double maxPrice, int minMinutes, int maxMinutes, int[] matching);
+
+    /**
+     * Returns whether the scan runs on the Vector API.
+     */
+    boolean isVectorized();
+
+    /**
+     * Returns the vectorized scan if it can run in this JVM, otherwise the scalar one.
+     */
+    static ColumnScan load() {
+        if (!Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true")) ||
+            ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return new ScalarColumnScan();
+        }
+
+        try {
+            return (ColumnScan) Class.forName(VECTOR_SCAN).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | UnsupportedOperationException e) {
+            return new ScalarColumnScan();
+        }
+    }
+}
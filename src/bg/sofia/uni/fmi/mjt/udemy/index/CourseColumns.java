@@ -0,0 +1,162 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * The fields queries filter on, stored as parallel primitive arrays indexed by course id.
+ * Scans over price, duration and category read these arrays sequentially instead of dereferencing every
+ * {@link Course} and its {@link bg.sofia.uni.fmi.mjt.udemy.course.duration.CourseDuration}; the courses themselves
+ * stay in the catalog, which serves as the id to course side table.
+ * The arrays are split into the chunks of a {@link ChunkTree}, so a copy shares them with the original and
+ * setting the fields of one course copies a single chunk of each.
+ * A price range from negative to positive infinity is no bound at all and matches every price, NaN included;
+ * any other range leaves NaN out, as {@code <=} does.
+ */
+public class CourseColumns {
+    static final byte NO_COURSE = -2;
+    static final byte UNCATEGORIZED = -1;
+    private static final int INDEX_MASK = ChunkTree.CHUNK_SIZE - 1;
+    private static final ColumnScan SCAN = ColumnScan.load();
+
+    private final ChunkTree<Chunk> chunks;
+    private int size;
+
+    public CourseColumns() {
+        this.chunks = new ChunkTree<>(Chunk::new, Chunk::new);
+        this.size = 0;
+    }
+
+    /**
+     * Creates a copy of the columns. The original must not be changed afterwards, as the two share chunks.
+     */
+    public CourseColumns(CourseColumns other) {
+        this.chunks = new ChunkTree<>(other.chunks);
+        this.size = other.size;
+    }
+
+    /**
+     * Stores the fields of the course under the given id; a null course leaves the id empty.
+     */
+    public void set(int id, Course course) {
+        size = Math.max(size, id + 1);
+        Chunk chunk = chunks.writableChunk(id >>> ChunkTree.CHUNK_BITS);
+        int index = id & INDEX_MASK;
+
+        if (course == null) {
+            chunk.categories[index] = NO_COURSE;
+            return;
+        }
+
+        chunk.prices[index] = course.getPrice();
+        chunk.minutes[index] = course.getTotalTime().toMinutes();
+        chunk.categories[index] = course.getCategory() == null ? UNCATEGORIZED : (byte) course.getCategory().ordinal();
+    }
+
+    /**
+     * Marks the id as empty.
+     */
+    public void clear(int id) {
+        chunks.writableChunk(id >>> ChunkTree.CHUNK_BITS).categories[id & INDEX_MASK] = NO_COURSE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private Chunk chunkOf(int id) {
+        return chunks.chunk(id >>> ChunkTree.CHUNK_BITS);
+    }
+
+    public boolean isPresent(int id) {
+        return chunkOf(id).categories[id & INDEX_MASK] != NO_COURSE;
+    }
+
+    public boolean isPriceBetween(int id, double minPrice, double maxPrice) {
+        double price = chunkOf(id).prices[id & INDEX_MASK];
+        return isUnbounded(minPrice, maxPrice) || price >= minPrice && price <= maxPrice;
+    }
+
+    public boolean isDurationBetween(int id, int minMinutes, int maxMinutes) {
+        int duration = chunkOf(id).minutes[id & INDEX_MASK];
+        return duration >= minMinutes && duration <= maxMinutes;
+    }
+
+    /**
+     * Returns whether the course belongs to one of the categories of the mask.
+     *
+     * @param categoryMask a bit set of category ordinals, see {@link #maskOf(Set)}.
+     */
+    public boolean isInCategories(int id, int categoryMask) {
+        byte category = chunkOf(id).categories[id & INDEX_MASK];
+        return category >= 0 && (categoryMask & (1 << category)) != 0;
+    }
+
+    /**
+     * Returns whether {@link #scan} runs on the incubating Vector API in this JVM.
+     */
+    public static boolean isScanVectorized() {
+        return SCAN.isVectorized();
+    }
+
+    public static int maskOf(Set<Category> categories) {
+        int mask = 0;
+        for (Category category : categories) {
+            mask |= 1 << category.ordinal();
+        }
+
+        return mask;
+    }
+
+    static boolean isUnbounded(double minPrice, double maxPrice) {
+        return minPrice == Double.NEGATIVE_INFINITY && maxPrice == Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns, in ascending order, the ids of the courses within both ranges and, unless categoryMask is 0,
+     * in one of its categories. The columns are read front to back, one sequential pass over each chunk, with
+     * SIMD instructions when the Vector API is available (see {@link #isScanVectorized()}).
+     */
+    public int[] scan(int categoryMask, double minPrice, double maxPrice, int minMinutes, int maxMinutes) {
+        int[] matching = new int[size];
+        int[] chunkMatching = new int[Math.min(size, ChunkTree.CHUNK_SIZE)];
+        int count = 0;
+
+        for (int first = 0; first < size; first += ChunkTree.CHUNK_SIZE) {
+            Chunk chunk = chunkOf(first);
+            int found = SCAN.scan(chunk.prices, chunk.minutes, chunk.categories,
+                Math.min(ChunkTree.CHUNK_SIZE, size - first), categoryMask, minPrice, maxPrice, minMinutes,
+                maxMinutes, chunkMatching);
+
+            for (int i = 0; i < found; i++) {
+                matching[count++] = first + chunkMatching[i];
+            }
+        }
+
+        return Arrays.copyOf(matching, count);
+    }
+
+    /**
+     * The fields of {@value ChunkTree#CHUNK_SIZE} consecutive ids.
+     */
+    private static final class Chunk {
+        private final double[] prices;
+        private final int[] minutes;
+        private final byte[] categories;
+
+        Chunk() {
+            this.prices = new double[ChunkTree.CHUNK_SIZE];
+            this.minutes = new int[ChunkTree.CHUNK_SIZE];
+            this.categories = new byte[ChunkTree.CHUNK_SIZE];
+        }
+
+        Chunk(Chunk other) {
+            this.prices = other.prices.clone();
+            this.minutes = other.minutes.clone();
+            this.categories = other.categories.clone();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * Courses ordered by total duration, longest first, so the longest course survives removals.
+ * A copy shares its trees with the original, so a change copies O(log n) nodes.
+ */
+public class DurationIndex {
+    private static final Comparator<TimedCourse> LONGEST_FIRST =
+        Comparator.comparingInt(TimedCourse::minutes).reversed().thenComparingInt(TimedCourse::id);
+
+    private final PersistentSortedMap<Integer, TimedCourse> byId;
+    private final PersistentSortedMap<TimedCourse, TimedCourse> byDuration;
+
+    public DurationIndex() {
+        this.byId = new PersistentSortedMap<>(Comparator.naturalOrder());
+        this.byDuration = new PersistentSortedMap<>(LONGEST_FIRST);
+    }
+
+    /**
+     * Creates a copy of the index. The original must not be changed afterwards, as the two share nodes.
+     */
+    public DurationIndex(DurationIndex other) {
+        this.byId = new PersistentSortedMap<>(other.byId);
+        this.byDuration = new PersistentSortedMap<>(other.byDuration);
+    }
+
+    /**
+     * Adds the course under the given id, replacing the course previously stored under that id, if any.
+     */
+    public void add(int id, Course course) {
+        TimedCourse timed = new TimedCourse(id, course.getTotalTime().toMinutes(), course);
+        TimedCourse replaced = byId.get(id);
+        byId.put(id, timed);
+        if (replaced != null) {
+            byDuration.remove(replaced);
+        }
+
+        byDuration.put(timed, timed);
+    }
+
+    /**
+     * Removes the course stored under the given id.
+     */
+    public void remove(int id) {
+        TimedCourse removed = byId.remove(id);
+        if (removed != null) {
+            byDuration.remove(removed);
+        }
+    }
+
+    /**
+     * Returns the longest course, the one with the lowest id on equal durations,
+     * or null if there are no courses or all of them are empty.
+     */
+    public Course getLongest() {
+        Map.Entry<TimedCourse, TimedCourse> first = byDuration.firstEntry();
+        if (first == null) {
+            return null;
+        }
+
+        TimedCourse top = first.getValue();
+        return top.minutes() > 0 ? top.course() : null;
+    }
+
+    private record TimedCourse(int id, int minutes, Course course) {
+    }
+}
@@ -0,0 +1,91 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+/**
+ * An approximate count of how often keys were seen recently: a count-min sketch of 4-bit counters, four per key.
+ * Once the number of increments reaches ten times the capacity, every counter is halved, so old popularity fades.
+ * Not thread-safe.
+ */
+class FrequencySketch {
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int SAMPLE_FACTOR = 10;
+    private static final long ONE_BIT_MASK = 0x1111111111111111L;
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long[] SEEDS = {0x97CB3127L, 0xB8A8A5C7L, 0xC2B2AE3DL, 0x27D4EB2FL};
+
+    private long[] table;
+    private int sampleSize;
+    private int additions;
+
+    FrequencySketch(int capacity) {
+        ensureCapacity(capacity);
+    }
+
+    /**
+     * Makes room for counting the given number of keys, forgetting every count if the sketch grows.
+     */
+    void ensureCapacity(int capacity) {
+        int length = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+        if (table == null || length > table.length) {
+            table = new long[length];
+            sampleSize = SAMPLE_FACTOR * length;
+            additions = 0;
+        }
+    }
+
+    /**
+     * Returns the estimated number of times the key was seen, at most {@value #MAX_COUNT}.
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, counter(hash, row));
+        }
+
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            if (counter(hash, row) < MAX_COUNT) {
+                table[slot(hash, row)] += 1L << shift(hash, row);
+                added = true;
+            }
+        }
+
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_BIT_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+
+        additions = (additions - odd / DEPTH) / 2;
+    }
+
+    private int counter(int hash, int row) {
+        return (int) ((table[slot(hash, row)] >>> shift(hash, row)) & MAX_COUNT);
+    }
+
+    private int slot(int hash, int row) {
+        long mixed = (hash + SEEDS[row]) * SEEDS[row];
+        return (int) ((mixed + (mixed >>> 32)) & (table.length - 1));
+    }
+
+    private static int shift(int hash, int row) {
+        return (((hash >>> (row * 8)) & 3) << 2) + (row << 4);
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45D9F3B;
+        return (hash >>> 16) ^ hash;
+    }
+}
@@ -0,0 +1,301 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded cache of keyword lookups, shared by every version of a {@link KeywordIndex}.
+ *
+ * <p>An entry keeps the matching ids together with the stamps of the posting lists they were computed from.
+ * A posting list gets a new stamp whenever a version changes it, and the ids of a keyword depend only on its
+ * posting lists, so an entry is used only by versions which still have lists with the same stamps. A change to
+ * the catalog thus invalidates exactly the keywords sharing a gram with a changed course, and a query against an
+ * older snapshot never sees a newer result or the other way round.
+ *
+ * <p>Eviction is W-TinyLFU and weight-aware: new entries enter a small LRU window; entries leaving it compete with
+ * the least recently used entry of the main space and only the one seen more often, according to a
+ * {@link FrequencySketch} of recent lookups, stays. The main space is a segmented LRU which protects entries hit
+ * since they were admitted.
+ *
+ * <p>Lookups read a concurrent map without locking. Hits reorder the policy only when its lock is free, so under
+ * contention some of them are not counted towards the recency and frequency of their key.
+ */
+public class KeywordCache {
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+    private static final int ENTRY_OVERHEAD = 96;
+    private static final int AVERAGE_ENTRY_WEIGHT = 1024;
+
+    private final ConcurrentHashMap<String, Node> nodes;
+    private final ReentrantLock policyLock;
+    private final FrequencySketch sketch;
+    private final Queue window;
+    private final Queue probation;
+    private final Queue protectedQueue;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder invalidations;
+    private final LongAdder evictions;
+    private volatile long maximumWeight;
+    private long weight;
+
+    /**
+     * @param maximumWeight the total weight of the entries the cache may hold, roughly in bytes, or 0 to disable it.
+     * @throws IllegalArgumentException if maximumWeight is negative.
+     */
+    public KeywordCache(long maximumWeight) {
+        validateWeight(maximumWeight);
+
+        this.nodes = new ConcurrentHashMap<>();
+        this.policyLock = new ReentrantLock();
+        this.sketch = new FrequencySketch(expectedEntries(maximumWeight));
+        this.window = new Queue();
+        this.probation = new Queue();
+        this.protectedQueue = new Queue();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.invalidations = new LongAdder();
+        this.evictions = new LongAdder();
+        this.maximumWeight = maximumWeight;
+        this.weight = 0;
+    }
+
+    /**
+     * Changes the maximum weight, evicting entries if the cache holds more.
+     *
+     * @throws IllegalArgumentException if maximumWeight is negative.
+     */
+    public void setMaximumWeight(long maximumWeight) {
+        validateWeight(maximumWeight);
+
+        policyLock.lock();
+        try {
+            this.maximumWeight = maximumWeight;
+            sketch.ensureCapacity(expectedEntries(maximumWeight));
+            evict();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    private static void validateWeight(long maximumWeight) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("Maximum cache weight can't be negative.");
+        }
+    }
+
+    private static int expectedEntries(long maximumWeight) {
+        return (int) Math.min(Integer.MAX_VALUE >> 2, maximumWeight / AVERAGE_ENTRY_WEIGHT);
+    }
+
+    /**
+     * Returns the cached ids of the keyword if they were computed from posting lists with the given stamps,
+     * otherwise null. The returned array is shared and must not be modified.
+     */
+    int[] get(String keyword, long[] stamps) {
+        Node node = nodes.get(keyword);
+        if (node == null || !Arrays.equals(node.stamps, stamps)) {
+            misses.increment();
+            if (node != null) {
+                invalidations.increment();
+            }
+
+            if (maximumWeight > 0) {
+                recordMiss(keyword);
+            }
+
+            return null;
+        }
+
+        hits.increment();
+        if (policyLock.tryLock()) {
+            try {
+                sketch.increment(keyword);
+                onHit(node);
+            } finally {
+                policyLock.unlock();
+            }
+        }
+
+        return node.ids;
+    }
+
+    private void recordMiss(String keyword) {
+        if (policyLock.tryLock()) {
+            try {
+                sketch.increment(keyword);
+            } finally {
+                policyLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Caches a copy of the ids of the keyword computed from posting lists with the given stamps, replacing an
+     * older entry.
+     */
+    void put(String keyword, long[] stamps, int[] ids) {
+        long entryWeight = ENTRY_OVERHEAD + 2L * keyword.length() + (long) Long.BYTES * stamps.length +
+            (long) Integer.BYTES * ids.length;
+        if (entryWeight > maximumWeight) {
+            return;
+        }
+
+        Node node = new Node(keyword, stamps, ids.clone(), (int) Math.min(Integer.MAX_VALUE, entryWeight));
+
+        policyLock.lock();
+        try {
+            Node previous = nodes.put(keyword, node);
+            if (previous != null) {
+                unlink(previous);
+            }
+
+            window.addLast(node);
+            weight += node.weight;
+            evict();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void onHit(Node node) {
+        if (node.queue == window) {
+            window.moveToLast(node);
+        } else if (node.queue == probation) {
+            probation.remove(node);
+            protectedQueue.addLast(node);
+
+            long protectedLimit = (maximumWeight - windowLimit()) * PROTECTED_PERCENT / 100;
+            while (protectedQueue.weight > protectedLimit && protectedQueue.first != node) {
+                Node demoted = protectedQueue.first;
+                protectedQueue.remove(demoted);
+                probation.addLast(demoted);
+            }
+        } else if (node.queue == protectedQueue) {
+            protectedQueue.moveToLast(node);
+        }
+    }
+
+    /**
+     * Moves the entries overflowing the window to the main space, where each of them is admitted only if it was
+     * seen more often than the entry it would displace, until the cache is within its maximum weight.
+     */
+    private void evict() {
+        while (window.weight > windowLimit() && window.first != null) {
+            Node candidate = window.first;
+            window.remove(candidate);
+            probation.addLast(candidate);
+        }
+
+        while (weight > maximumWeight) {
+            Node victim = probation.first != null ? probation.first :
+                protectedQueue.first != null ? protectedQueue.first : window.first;
+            Node candidate = probation.last;
+
+            if (candidate != null && candidate != victim &&
+                sketch.frequency(candidate.keyword) <= sketch.frequency(victim.keyword)) {
+                victim = candidate;
+            }
+
+            unlink(victim);
+            nodes.remove(victim.keyword, victim);
+            evictions.increment();
+        }
+    }
+
+    private long windowLimit() {
+        return maximumWeight * WINDOW_PERCENT / 100;
+    }
+
+    private void unlink(Node node) {
+        if (node.queue != null) {
+            node.queue.remove(node);
+            weight -= node.weight;
+        }
+    }
+
+    /**
+     * Returns the current counters of the cache.
+     */
+    public KeywordCacheStats stats() {
+        policyLock.lock();
+        try {
+            return new KeywordCacheStats(hits.sum(), misses.sum(), invalidations.sum(), evictions.sum(), nodes.size(),
+                weight);
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private static final class Node {
+        private final String keyword;
+        private final long[] stamps;
+        private final int[] ids;
+        private final int weight;
+        private Queue queue;
+        private Node previous;
+        private Node next;
+
+        private Node(String keyword, long[] stamps, int[] ids, int weight) {
+            this.keyword = keyword;
+            this.stamps = stamps;
+            this.ids = ids;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * A doubly linked list of nodes from the least to the most recently used, with their total weight.
+     */
+    private static final class Queue {
+        private Node first;
+        private Node last;
+        private long weight;
+
+        private void addLast(Node node) {
+            node.queue = this;
+            node.previous = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+
+            last = node;
+            weight += node.weight;
+        }
+
+        private void remove(Node node) {
+            if (node.previous == null) {
+                first = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+
+            if (node.next == null) {
+                last = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+
+            node.queue = null;
+            node.previous = null;
+            node.next = null;
+            weight -= node.weight;
+        }
+
+        private void moveToLast(Node node) {
+            if (last != node) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+/**
+ * The counters of a {@link KeywordCache} at one moment.
+ *
+ * @param hits          lookups answered from the cache.
+ * @param misses        lookups which had to be computed, including the invalidated ones.
+ * @param invalidations lookups which found an entry computed before a change to the courses matching the keyword.
+ * @param evictions     entries dropped to stay within the maximum weight.
+ * @param size          the number of cached keywords.
+ * @param weight        the total weight of the cached entries, roughly the bytes they take.
+ */
+public record KeywordCacheStats(long hits, long misses, long invalidations, long evictions, int size, long weight) {
+
+    /**
+     * Returns the share of lookups answered from the cache, or 0 if there were none.
+     */
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,215 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Inverted n-gram index over course names and descriptions.
+ * Every run of up to {@value #MAX_GRAM_LENGTH} latin letters points to the ids of the courses containing it,
+ * so a keyword lookup intersects a handful of posting lists instead of scanning the whole catalog.
+ * Matching is case-sensitive and has the same semantics as {@link String#contains(CharSequence)}.
+ * The posting lists are found by a number encoding the gram in a {@link ChunkedArray}. A copy shares them with
+ * the original and copies a list, which copies one of its blocks, only when it changes it.
+ * Lookups of keywords longer than the indexed grams, which verify every candidate, are kept in a
+ * {@link KeywordCache} shared with every copy.
+ */
+public class KeywordIndex {
+    private static final int MAX_GRAM_LENGTH = 3;
+    private static final int LETTERS = 2 * ('z' - 'a' + 1);
+
+    private final ChunkedArray<PostingList> postings;
+    private final Set<Integer> ownedGrams;
+    private final KeywordCache cache;
+
+    public KeywordIndex(KeywordCache cache) {
+        this.postings = new ChunkedArray<>();
+        this.ownedGrams = new HashSet<>();
+        this.cache = cache;
+    }
+
+    /**
+     * Creates a copy of the index. The original must not be changed afterwards, as the two share posting lists.
+     */
+    public KeywordIndex(KeywordIndex other) {
+        this.postings = new ChunkedArray<>(other.postings);
+        this.ownedGrams = new HashSet<>();
+        this.cache = other.cache;
+    }
+
+    /**
+     * Adds the course under the given id. Ids must be added in ascending order.
+     */
+    public void add(int id, Course course) {
+        indexText(id, course.getName());
+        indexText(id, course.getDescription());
+    }
+
+    /**
+     * Removes the course added under the given id. The course must have the name and description it was added with.
+     */
+    public void remove(int id, Course course) {
+        unindexText(id, course.getName());
+        unindexText(id, course.getDescription());
+    }
+
+    private void indexText(int id, String text) {
+        for (int start = 0; start < text.length(); start++) {
+            int gram = 0;
+            for (int length = 1; length <= MAX_GRAM_LENGTH && start + length <= text.length(); length++) {
+                if (!isLatinLetter(text.charAt(start + length - 1))) {
+                    break;
+                }
+
+                gram = extend(gram, text.charAt(start + length - 1));
+                writableList(gram).add(id);
+            }
+        }
+    }
+
+    private void unindexText(int id, String text) {
+        for (int start = 0; start < text.length(); start++) {
+            int gram = 0;
+            for (int length = 1; length <= MAX_GRAM_LENGTH && start + length <= text.length(); length++) {
+                if (!isLatinLetter(text.charAt(start + length - 1))) {
+                    break;
+                }
+
+                gram = extend(gram, text.charAt(start + length - 1));
+                if (postings.get(gram) != null) {
+                    PostingList list = writableList(gram);
+                    list.remove(id);
+                    if (list.size() == 0) {
+                        postings.set(gram, null);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of the gram made of the given gram followed by the letter. Every gram of up to
+     * {@value #MAX_GRAM_LENGTH} letters gets a distinct number, the empty gram being 0.
+     */
+    private static int extend(int gram, char letter) {
+        int digit = letter >= 'a' ? letter - 'a' + 1 : letter - 'A' + 1 + ('z' - 'a' + 1);
+        return gram * (LETTERS + 1) + digit;
+    }
+
+    /**
+     * Returns the posting list of the keyword letters from start to end, exclusive, or null if no course has them.
+     */
+    private PostingList postingsOf(String keyword, int start, int end) {
+        int gram = 0;
+        for (int i = start; i < end; i++) {
+            gram = extend(gram, keyword.charAt(i));
+        }
+
+        return postings.get(gram);
+    }
+
+    /**
+     * Returns the posting list of the gram which this index may change, creating it or copying a shared one.
+     */
+    private PostingList writableList(int gram) {
+        PostingList list = postings.get(gram);
+        if (list == null) {
+            list = new PostingList();
+            postings.set(gram, list);
+            ownedGrams.add(gram);
+        } else if (ownedGrams.add(gram)) {
+            list = new PostingList(list);
+            postings.set(gram, list);
+        }
+
+        return list;
+    }
+
+    /**
+     * Returns an upper bound of the number of courses containing the keyword, read from the posting list sizes.
+     */
+    public int estimate(String keyword) {
+        if (keyword.length() <= MAX_GRAM_LENGTH) {
+            PostingList exact = postingsOf(keyword, 0, keyword.length());
+            return exact == null ? 0 : exact.size();
+        }
+
+        int bound = Integer.MAX_VALUE;
+        for (int start = 0; start + MAX_GRAM_LENGTH <= keyword.length(); start++) {
+            PostingList list = postingsOf(keyword, start, start + MAX_GRAM_LENGTH);
+            bound = Math.min(bound, list == null ? 0 : list.size());
+        }
+
+        return bound;
+    }
+
+    /**
+     * Returns whether the name or the description of the course contains the keyword.
+     */
+    public static boolean contains(Course course, String keyword) {
+        return course.getName() != null && course.getDescription() != null &&
+            (course.getName().contains(keyword) || course.getDescription().contains(keyword));
+    }
+
+    /**
+     * Returns the ids, in ascending order, of the courses which name or description contain the keyword.
+     *
+     * @param keyword    a non-empty keyword of latin letters.
+     * @param courseById resolves an id to its course, used to verify keywords longer than the indexed grams.
+     * @param parallel   whether to verify the candidates with a {@link ParallelScan}.
+     */
+    public int[] find(String keyword, IntFunction<Course> courseById, boolean parallel) {
+        if (keyword.length() <= MAX_GRAM_LENGTH) {
+            PostingList exact = postingsOf(keyword, 0, keyword.length());
+            return exact == null ? new int[0] : exact.toArray();
+        }
+
+        PostingList[] lists = new PostingList[keyword.length() - MAX_GRAM_LENGTH + 1];
+        long[] stamps = new long[lists.length];
+        for (int start = 0; start < lists.length; start++) {
+            lists[start] = postingsOf(keyword, start, start + MAX_GRAM_LENGTH);
+            if (lists[start] == null) {
+                return new int[0];
+            }
+
+            stamps[start] = lists[start].stamp();
+        }
+
+        int[] cached = cache.get(keyword, stamps);
+        if (cached != null) {
+            return cached.clone();
+        }
+
+        int[] matching = verify(keyword, lists, courseById, parallel);
+        cache.put(keyword, stamps, matching);
+        return matching;
+    }
+
+    private static int[] verify(String keyword, PostingList[] lists, IntFunction<Course> courseById,
+                                boolean parallel) {
+        int[] candidates = lists[0].toArray();
+        for (int i = 1; i < lists.length && candidates.length > 0; i++) {
+            candidates = lists[i].intersect(candidates);
+        }
+
+        if (parallel) {
+            return ParallelScan.filter(candidates, id -> contains(courseById.apply(id), keyword));
+        }
+
+        int matches = 0;
+        for (int id : candidates) {
+            if (contains(courseById.apply(id), keyword)) {
+                candidates[matches++] = id;
+            }
+        }
+
+        return Arrays.copyOf(candidates, matches);
+    }
+
+    private static boolean isLatinLetter(char symbol) {
+        return (symbol >= 'a' && symbol <= 'z') || (symbol >= 'A' && symbol <= 'Z');
+    }
+}
@@ -0,0 +1,138 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+import java.util.Arrays;
+
+/**
+ * Bounded Levenshtein distances from one target to candidates visited in sorted order, as when walking a trie.
+ * The rows of the dynamic program are kept per candidate character, so the rows of the prefix a candidate shares
+ * with the previous one are not computed again, and only the diagonal band of the maximum distance is computed.
+ * Once no extension of a candidate prefix can be within the maximum distance, {@link #deadEnd()} tells the caller
+ * to skip every candidate starting with that prefix.
+ *
+ * <p>A matcher may also require that the first characters of the target are matched within a smaller distance,
+ * which prunes the walk much earlier. Such a matcher reports only the candidates for which some cheapest
+ * alignment meets the requirement, with their distance under it. Not thread-safe; a matcher serves one lookup.
+ */
+final class LevenshteinMatcher {
+    private static final int INITIAL_DEPTH = 16;
+
+    private final String target;
+    private final int maxDistance;
+    private final int cappedLength;
+    private final int cap;
+    private final int unreachable;
+    private int[][] rows;
+    private String path;
+    private int computed;
+    private int deadEnd;
+
+    LevenshteinMatcher(String target, int maxDistance) {
+        this(target, maxDistance, 0, maxDistance);
+    }
+
+    /**
+     * Creates a matcher requiring the first cappedLength characters of the target to be matched within cap.
+     */
+    LevenshteinMatcher(String target, int maxDistance, int cappedLength, int cap) {
+        this.target = target;
+        this.maxDistance = maxDistance;
+        this.cappedLength = cappedLength;
+        this.cap = cap;
+        this.unreachable = maxDistance + 1;
+        this.rows = new int[INITIAL_DEPTH][];
+        this.rows[0] = new int[target.length() + 1];
+        Arrays.setAll(this.rows[0], j -> capped(j, j));
+        this.path = "";
+        this.computed = 0;
+        this.deadEnd = -1;
+    }
+
+    /**
+     * Returns the distance between the target and the candidate if it is at most the maximum distance, otherwise -1.
+     */
+    int distance(String candidate) {
+        int common = 0;
+        int limit = Math.min(computed, candidate.length());
+        while (common < limit && path.charAt(common) == candidate.charAt(common)) {
+            common++;
+        }
+
+        path = candidate;
+        computed = common;
+        deadEnd = -1;
+
+        for (int depth = common + 1; depth <= candidate.length(); depth++) {
+            if (computeRow(depth, candidate.charAt(depth - 1)) > maxDistance) {
+                computed = depth;
+                deadEnd = depth;
+                return -1;
+            }
+        }
+
+        computed = candidate.length();
+        if (Math.abs(candidate.length() - target.length()) > maxDistance) {
+            return -1;
+        }
+
+        int distance = rows[computed][target.length()];
+        return distance <= maxDistance ? distance : -1;
+    }
+
+    int maxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * Returns the length of the prefix of the last candidate which no candidate starting with it can match,
+     * or -1 if there is none.
+     */
+    int deadEnd() {
+        return deadEnd;
+    }
+
+    /**
+     * Computes the band of the row of the given depth from the one above it and returns its minimum.
+     * The cell right of the band is marked unreachable, as the band of the next row reads it.
+     */
+    private int computeRow(int depth, char symbol) {
+        if (depth == rows.length) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+        }
+
+        if (rows[depth] == null) {
+            rows[depth] = new int[target.length() + 1];
+        }
+
+        int[] above = rows[depth - 1];
+        int[] row = rows[depth];
+        int from = Math.max(0, depth - maxDistance);
+        int to = Math.min(target.length(), depth + maxDistance);
+
+        int minimum = unreachable;
+        int left = unreachable;
+        if (from == 0) {
+            row[0] = capped(0, depth);
+            left = row[0];
+            minimum = row[0];
+            from = 1;
+        }
+
+        for (int j = from; j <= to; j++) {
+            int substitution = above[j - 1] + (target.charAt(j - 1) == symbol ? 0 : 1);
+            row[j] = capped(j, Math.min(substitution, Math.min(above[j], left) + 1));
+            left = row[j];
+            minimum = Math.min(minimum, row[j]);
+        }
+
+        if (to < target.length()) {
+            row[to + 1] = unreachable;
+        }
+
+        return minimum;
+    }
+
+    private int capped(int column, int distance) {
+        int bound = column <= cappedLength ? cap : maxDistance;
+        return distance <= bound ? distance : unreachable;
+    }
+}
@@ -0,0 +1,272 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.query.CourseOrder;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Course names in sorted trees, for prefix completion. The courses whose name starts with a prefix form a
+ * contiguous key range, found in O(log n), already in name order. For the price and duration orders every node
+ * of the tree also keeps the best course below it, so the first courses of a range are picked without visiting
+ * the rest of it. Prices and durations are kept next to the courses, so querying the tree does not touch them.
+ *
+ * <p>The trees are {@link PersistentSortedMap}s: a copy shares them with the original, and adding, removing or
+ * repricing a course copies O(log n) nodes.
+ *
+ * <p>For typo-tolerant lookups the names are also kept in the order of their reversed text, so that the courses
+ * ending with the same characters are contiguous as well; see {@link #findSimilar(String, int, int)}.
+ */
+public class NameIndex {
+    private static final Course[] EMPTY = new Course[0];
+    private static final int BY_PRICE = 0;
+    private static final int BY_DURATION = 1;
+    private static final Comparator<NameKey> KEY_ORDER =
+        Comparator.comparing(NameKey::name).thenComparingInt(NameKey::id);
+    private static final List<Comparator<? super NamedCourse>> RANKINGS = List.of(
+        Comparator.comparingDouble(NamedCourse::price).thenComparingInt(NamedCourse::id),
+        Comparator.comparingInt(NamedCourse::minutes).thenComparingInt(NamedCourse::id));
+
+    private final PersistentSortedMap<NameKey, NamedCourse> byName;
+    private final PersistentSortedMap<NameKey, NamedCourse> byReversedName;
+
+    public NameIndex() {
+        this.byName = new PersistentSortedMap<>(KEY_ORDER, RANKINGS);
+        this.byReversedName = new PersistentSortedMap<>(KEY_ORDER);
+    }
+
+    /**
+     * Creates a copy of the index. The original must not be changed afterwards, as the two share nodes.
+     */
+    public NameIndex(NameIndex other) {
+        this.byName = new PersistentSortedMap<>(other.byName);
+        this.byReversedName = new PersistentSortedMap<>(other.byReversedName);
+    }
+
+    /**
+     * Adds the course under the given id, or replaces the course stored under it by one with the same name.
+     */
+    public void add(int id, Course course) {
+        NamedCourse named = new NamedCourse(id, course);
+        byName.put(new NameKey(course.getName(), id), named);
+        byReversedName.put(new NameKey(reverse(course.getName()), id), named);
+    }
+
+    /**
+     * Removes the course stored under the given id.
+     */
+    public void remove(int id, Course course) {
+        byName.remove(new NameKey(course.getName(), id));
+        byReversedName.remove(new NameKey(reverse(course.getName()), id));
+    }
+
+    /**
+     * Returns the smallest string greater than every string starting with the prefix,
+     * or null if there is none.
+     */
+    private static String successorOfPrefix(String prefix) {
+        int last = prefix.length() - 1;
+        while (last >= 0 && prefix.charAt(last) == Character.MAX_VALUE) {
+            last--;
+        }
+
+        return last < 0 ? null : prefix.substring(0, last) + (char) (prefix.charAt(last) + 1);
+    }
+
+    private static String reverse(String name) {
+        return new StringBuilder(name).reverse().toString();
+    }
+
+    /**
+     * Returns the first limit courses, in the given order, which name starts with the prefix.
+     * In name order these are the first courses of the matching range, read one successor at a time. In the
+     * other orders they are collected by {@link PersistentSortedMap#best} into a page of at most limit courses.
+     * Besides the result, a call allocates the two keys bounding the range, the end of the prefix and that page.
+     */
+    public Course[] complete(String prefix, CourseOrder order, int limit) {
+        NameKey from = new NameKey(prefix, Integer.MIN_VALUE);
+        String end = successorOfPrefix(prefix);
+        NameKey to = end == null ? null : new NameKey(end, Integer.MIN_VALUE);
+
+        int count = Math.min(limit, byName.count(from, true, to, false));
+        if (count == 0) {
+            return EMPTY;
+        }
+
+        Course[] completions = new Course[count];
+        if (order == CourseOrder.NAME) {
+            Map.Entry<NameKey, NamedCourse> entry = byName.ceilingEntry(from);
+            for (int i = 0; i < count; i++) {
+                completions[i] = entry.getValue().course();
+                entry = byName.higherEntry(entry.getKey());
+            }
+
+            return completions;
+        }
+
+        NamedCourse[] page = new NamedCourse[count];
+        byName.best(order == CourseOrder.PRICE ? BY_PRICE : BY_DURATION, from, true, to, false, page);
+        for (int i = 0; i < count; i++) {
+            completions[i] = page[i].course();
+        }
+
+        return completions;
+    }
+
+    /**
+     * Returns the first limit courses which name is within the given Levenshtein distance of the name, the closest
+     * first and equally close ones in name order.
+     * The sorted names are walked as the leaves of a trie: the distance rows of a shared prefix are computed once,
+     * and the names under a prefix which cannot be completed to a close enough name are skipped together with one
+     * lookup of the first name after them. As in the forward-backward method of Mihov and Schulz, a name within the
+     * distance matches either the first half of the target or the second half within half of the distance, rounded
+     * down. So the names are walked twice: in name order, holding the first half to that distance, and in the
+     * order of their reversed text with the target reversed, holding the second half. Most of each walk is cut off
+     * a few characters from the root.
+     *
+     * <p>The walks are repeated for every distance from 0 up, keeping only the names at exactly that distance, and
+     * stop after the first distance which fills the page of limit courses. The walk in name order also stops as
+     * soon as it fills the page, since every name after it sorts after the page.
+     */
+    public Course[] findSimilar(String name, int maxDistance, int limit) {
+        SimilarPage page = new SimilarPage(Math.min(limit, byName.size()));
+        int half = name.length() / 2;
+        String reversed = reverse(name);
+        PrefixOrder<NameKey> prefixOrder = new PrefixOrder<>(NameKey::name);
+
+        for (int distance = 0; distance <= maxDistance && !page.isFull(); distance++) {
+            walk(new LevenshteinMatcher(name, distance, half, distance / 2), closerThan(name, distance), byName,
+                prefixOrder, page, true);
+            walk(new LevenshteinMatcher(reversed, distance, name.length() - half - 1, distance / 2),
+                closerThan(reversed, distance), byReversedName, prefixOrder, page, false);
+        }
+
+        return page.courses();
+    }
+
+    /**
+     * Returns a matcher finding the names closer to the target than the distance, or null if the distance is 0.
+     */
+    private static LevenshteinMatcher closerThan(String target, int distance) {
+        return distance == 0 ? null : new LevenshteinMatcher(target, distance - 1);
+    }
+
+    /**
+     * Offers the page the courses matched by the matcher at its maximum distance, walking the names of the tree in
+     * key order. The matcher may report a name closer to the target at its maximum distance, when no cheapest
+     * alignment meets its requirement on one half, which takes a distance of 3 or more; such names were found at
+     * their own distance and the closer matcher leaves them out.
+     */
+    private static void walk(LevenshteinMatcher matcher, LevenshteinMatcher closer,
+                             PersistentSortedMap<NameKey, NamedCourse> tree, PrefixOrder<NameKey> prefixOrder,
+                             SimilarPage page, boolean inNameOrder) {
+        Map.Entry<NameKey, NamedCourse> entry = tree.firstEntry();
+        while (entry != null) {
+            String candidate = entry.getKey().name();
+            int distance = matcher.distance(candidate);
+            if (distance == matcher.maxDistance() && (closer == null || closer.distance(candidate) < 0)) {
+                page.offer(distance, entry.getValue());
+                if (inNameOrder && page.isFull()) {
+                    return;
+                }
+            }
+
+            int deadEnd = matcher.deadEnd();
+            if (deadEnd < 0) {
+                entry = tree.higherEntry(entry.getKey());
+            } else {
+                prefixOrder.setLength(deadEnd);
+                entry = tree.higherEntry(entry.getKey(), prefixOrder);
+            }
+        }
+    }
+
+    /**
+     * The best courses found so far by a similarity lookup, at most a fixed number, sorted by distance, then name,
+     * then id. A course offered twice is kept once.
+     */
+    private static final class SimilarPage {
+        private final int[] distances;
+        private final NamedCourse[] courses;
+        private int count;
+
+        SimilarPage(int capacity) {
+            this.distances = new int[capacity];
+            this.courses = new NamedCourse[capacity];
+            this.count = 0;
+        }
+
+        boolean isFull() {
+            return count == courses.length;
+        }
+
+        void offer(int distance, NamedCourse named) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int comparison = compare(middle, distance, named);
+                if (comparison == 0) {
+                    return;
+                }
+
+                if (comparison < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            if (low == courses.length) {
+                return;
+            }
+
+            int kept = Math.min(count, courses.length - 1);
+            System.arraycopy(distances, low, distances, low + 1, kept - low);
+            System.arraycopy(courses, low, courses, low + 1, kept - low);
+            distances[low] = distance;
+            courses[low] = named;
+            count = kept + 1;
+        }
+
+        private int compare(int position, int distance, NamedCourse named) {
+            if (distances[position] != distance) {
+                return Integer.compare(distances[position], distance);
+            }
+
+            int byName = courses[position].course().getName().compareTo(named.course().getName());
+            return byName != 0 ? byName : Integer.compare(courses[position].id(), named.id());
+        }
+
+        Course[] courses() {
+            if (count == 0) {
+                return EMPTY;
+            }
+
+            Course[] result = new Course[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = courses[i].course();
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * A name, or its reversed text, with the id of its course, as the courses are sorted by both.
+     */
+    private record NameKey(String name, int id) {
+    }
+
+    /**
+     * A course with the keys it is ranked by; the price is keyed as in {@link CourseOrder#PRICE}.
+     */
+    private record NamedCourse(int id, Course course, double price, int minutes) {
+
+        NamedCourse(int id, Course course) {
+            this(id, course, CourseOrder.priceKey(course.getPrice()), course.getTotalTime().toMinutes());
+        }
+    }
+}
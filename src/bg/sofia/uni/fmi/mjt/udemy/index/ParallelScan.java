@@ -0,0 +1,98 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * Fork-join scans over course storage.
+ * The range is split into chunks that are filtered independently and the chunk results are concatenated in
+ * order, so a parallel scan returns exactly what the sequential loop would. Ranges shorter than
+ * {@value #MIN_CHUNK_SIZE} elements are scanned on the calling thread.
+ */
+public final class ParallelScan {
+    private static final int MIN_CHUNK_SIZE = 4096;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private ParallelScan() {
+    }
+
+    /**
+     * Returns the ids, in their original order, which satisfy the predicate.
+     */
+    public static int[] filter(int[] ids, IntPredicate keep) {
+        int[] positions = positions(ids.length, position -> keep.test(ids[position]));
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = ids[positions[i]];
+        }
+
+        return positions;
+    }
+
+    /**
+     * Returns the non-null elements among the first count slots, in their original order.
+     *
+     * @param slots returns the element in a slot, null for an empty one.
+     */
+    public static <T> T[] compact(IntFunction<T> slots, int count, IntFunction<T[]> generator) {
+        int[] positions = positions(count, position -> slots.apply(position) != null);
+        T[] result = generator.apply(positions.length);
+        for (int i = 0; i < positions.length; i++) {
+            result[i] = slots.apply(positions[i]);
+        }
+
+        return result;
+    }
+
+    private static int[] positions(int length, IntPredicate keep) {
+        int parallelism = ForkJoinPool.commonPool().getParallelism();
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, length / (parallelism * CHUNKS_PER_THREAD));
+        return ForkJoinPool.commonPool().invoke(new Positions(0, length, chunkSize, keep));
+    }
+
+    /**
+     * Collects the positions in [from, to) which satisfy the predicate.
+     */
+    private static final class Positions extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final IntPredicate keep;
+
+        Positions(int from, int to, int chunkSize, IntPredicate keep) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.keep = keep;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= chunkSize) {
+                int[] matching = new int[to - from];
+                int size = 0;
+                for (int position = from; position < to; position++) {
+                    if (keep.test(position)) {
+                        matching[size++] = position;
+                    }
+                }
+
+                return Arrays.copyOf(matching, size);
+            }
+
+            int middle = (from + to) >>> 1;
+            Positions left = new Positions(from, middle, chunkSize, keep);
+            left.fork();
+            int[] right = new Positions(middle, to, chunkSize, keep).compute();
+            int[] leftResult = left.join();
+
+            int[] combined = Arrays.copyOf(leftResult, leftResult.length + right.length);
+            System.arraycopy(right, 0, combined, leftResult.length, right.length);
+            return combined;
+        }
+    }
+}
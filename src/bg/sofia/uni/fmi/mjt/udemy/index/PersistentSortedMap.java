@@ -0,0 +1,551 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A sorted map which copies share structurally: a balanced (AVL) search tree whose nodes belong to the map that
+ * created them. A copy shares every node with the original, so making it is O(1); a change then copies only the
+ * nodes on the path to the changed key which the map does not own yet, O(log n) of them, and changes the ones it
+ * owns in place, so a version built by many changes copies every shared node at most once.
+ * As with the indexes built on it, the original must not be changed once a copy has been made from it.
+ * Values must not be null.
+ *
+ * <p>A map may rank its values in some orders, in which case every node also keeps the best value of its subtree
+ * in each of them, and the best values of any key range are found without visiting the rest of it with
+ * {@link #best}.
+ */
+public final class PersistentSortedMap<K, V> {
+    private final Comparator<? super K> comparator;
+    private final List<Comparator<? super V>> rankings;
+    private final Object owner;
+    private Node<K, V> root;
+
+    public PersistentSortedMap(Comparator<? super K> comparator) {
+        this(comparator, List.of());
+    }
+
+    /**
+     * Creates an empty map which keeps the best value of every subtree in each of the rankings,
+     * the smallest value being the best.
+     */
+    public PersistentSortedMap(Comparator<? super K> comparator, List<Comparator<? super V>> rankings) {
+        this.comparator = comparator;
+        this.rankings = List.copyOf(rankings);
+        this.owner = new Object();
+        this.root = null;
+    }
+
+    /**
+     * Creates a copy of the map. The original must not be changed afterwards, as the two share nodes.
+     */
+    public PersistentSortedMap(PersistentSortedMap<K, V> other) {
+        this.comparator = other.comparator;
+        this.rankings = other.rankings;
+        this.owner = new Object();
+        this.root = other.root;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int comparison = comparator.compare(key, node.key);
+            if (comparison == 0) {
+                return node.value;
+            }
+
+            node = comparison < 0 ? node.left : node.right;
+        }
+
+        return null;
+    }
+
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Maps the key to the value, replacing the key and the value stored for an equal key, if any.
+     */
+    public void put(K key, V value) {
+        root = put(root, key, value);
+    }
+
+    /**
+     * Removes the key and returns the value it was mapped to, or null if there was none.
+     */
+    public V remove(K key) {
+        V removed = get(key);
+        if (removed != null) {
+            root = remove(root, key);
+        }
+
+        return removed;
+    }
+
+    public Map.Entry<K, V> firstEntry() {
+        Node<K, V> node = root;
+        while (node != null && node.left != null) {
+            node = node.left;
+        }
+
+        return node;
+    }
+
+    public Map.Entry<K, V> lastEntry() {
+        Node<K, V> node = root;
+        while (node != null && node.right != null) {
+            node = node.right;
+        }
+
+        return node;
+    }
+
+    /**
+     * Returns the entry with the greatest key less than or equal to the key, or null if there is none.
+     */
+    public Map.Entry<K, V> floorEntry(K key) {
+        Node<K, V> floor = null;
+        Node<K, V> node = root;
+        while (node != null) {
+            int comparison = comparator.compare(key, node.key);
+            if (comparison == 0) {
+                return node;
+            } else if (comparison < 0) {
+                node = node.left;
+            } else {
+                floor = node;
+                node = node.right;
+            }
+        }
+
+        return floor;
+    }
+
+    /**
+     * Returns the entry with the least key greater than or equal to the key, or null if there is none.
+     */
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return firstAbove(key, true);
+    }
+
+    /**
+     * Returns the entry with the least key strictly greater than the key, or null if there is none.
+     */
+    public Map.Entry<K, V> higherEntry(K key) {
+        return firstAbove(key, false);
+    }
+
+    /**
+     * Returns the entry with the least key greater than the key in a coarser order, or null if there is none.
+     * The coarser order must not contradict the order of the map, as an order comparing only a prefix of the keys
+     * does not; the entries equal to the key in it are all skipped.
+     */
+    public Map.Entry<K, V> higherEntry(K key, Comparator<? super K> coarserOrder) {
+        Node<K, V> result = null;
+        Node<K, V> node = root;
+        while (node != null) {
+            if (coarserOrder.compare(node.key, key) > 0) {
+                result = node;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+
+        return result;
+    }
+
+    private Node<K, V> firstAbove(K key, boolean inclusive) {
+        Node<K, V> result = null;
+        Node<K, V> node = root;
+        while (node != null) {
+            if (isAbove(node.key, key, inclusive)) {
+                result = node;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the values in key order.
+     */
+    public Iterable<V> values() {
+        return values(null, true, null, true);
+    }
+
+    /**
+     * Returns, in key order, the values which keys are within the bounds; a null bound leaves that side open.
+     */
+    public Iterable<V> values(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        return () -> new Iterator<>() {
+            private final Iterator<Map.Entry<K, V>> entries =
+                entries(from, fromInclusive, to, toInclusive).iterator();
+
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public V next() {
+                return entries.next().getValue();
+            }
+        };
+    }
+
+    /**
+     * Returns, in key order, the entries which keys are within the bounds; a null bound leaves that side open.
+     * Walking them costs O(log n) plus the number of entries visited.
+     */
+    public Iterable<Map.Entry<K, V>> entries(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        return () -> new Iterator<>() {
+            private final Deque<Node<K, V>> path = descend(root);
+            private Node<K, V> next = advance();
+
+            private Deque<Node<K, V>> descend(Node<K, V> start) {
+                Deque<Node<K, V>> nodes = new ArrayDeque<>();
+                Node<K, V> node = start;
+                while (node != null) {
+                    if (from == null || isAbove(node.key, from, fromInclusive)) {
+                        nodes.push(node);
+                        node = node.left;
+                    } else {
+                        node = node.right;
+                    }
+                }
+
+                return nodes;
+            }
+
+            private Node<K, V> advance() {
+                if (path.isEmpty()) {
+                    return null;
+                }
+
+                Node<K, V> node = path.pop();
+                for (Node<K, V> child = node.right; child != null; child = child.left) {
+                    path.push(child);
+                }
+
+                return to == null || isAbove(to, node.key, toInclusive) ? node : null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Map.Entry<K, V> next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+
+                Node<K, V> current = next;
+                next = advance();
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Returns the number of keys within the bounds, in O(log n); a null bound leaves that side open.
+     */
+    public int count(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        int below = from == null ? 0 : countBelow(from, !fromInclusive);
+        return Math.max(0, (to == null ? size() : countBelow(to, toInclusive)) - below);
+    }
+
+    /**
+     * Returns the number of keys less than the bound, or equal to it if inclusive.
+     */
+    private int countBelow(K bound, boolean inclusive) {
+        int count = 0;
+        Node<K, V> node = root;
+        while (node != null) {
+            if (isAbove(node.key, bound, !inclusive)) {
+                node = node.left;
+            } else {
+                count += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Fills the page with the best values, in the ranking with the given index, among the keys within the bounds,
+     * best first, and returns how many there are, at most the length of the page; a null bound leaves that side
+     * open. The better subtree is searched first and a subtree whose best value would not make it into a full page
+     * is skipped, so the work follows the size of the page rather than the number of keys within the bounds.
+     * Nothing is allocated.
+     */
+    public int best(int ranking, K from, boolean fromInclusive, K to, boolean toInclusive, V[] page) {
+        return best(root, ranking, from, fromInclusive, to, toInclusive, page, 0);
+    }
+
+    private int best(Node<K, V> node, int ranking, K from, boolean fromInclusive, K to, boolean toInclusive,
+                     V[] page, int count) {
+        if (node == null || page.length == 0 ||
+            count == page.length && rankings.get(ranking).compare(node.best(ranking), page[count - 1]) >= 0) {
+            return count;
+        }
+
+        if (from != null && !isAbove(node.key, from, fromInclusive)) {
+            return best(node.right, ranking, from, fromInclusive, to, toInclusive, page, count);
+        }
+
+        if (to != null && !isAbove(to, node.key, toInclusive)) {
+            return best(node.left, ranking, from, fromInclusive, to, toInclusive, page, count);
+        }
+
+        int found = offer(ranking, node.value, page, count);
+        // Every key of the left subtree is below the upper bound and every key of the right one above the lower.
+        if (from == null && to == null && node.right != null && (node.left == null ||
+            rankings.get(ranking).compare(node.right.best(ranking), node.left.best(ranking)) < 0)) {
+            found = best(node.right, ranking, null, false, null, false, page, found);
+            return best(node.left, ranking, null, false, null, false, page, found);
+        }
+
+        found = best(node.left, ranking, from, fromInclusive, null, false, page, found);
+        return best(node.right, ranking, null, false, to, toInclusive, page, found);
+    }
+
+    /**
+     * Inserts the value into the page of count values sorted best first, dropping the last one if the page is
+     * full, and returns the new count.
+     */
+    private int offer(int ranking, V value, V[] page, int count) {
+        Comparator<? super V> order = rankings.get(ranking);
+        int position = count;
+        while (position > 0 && order.compare(value, page[position - 1]) < 0) {
+            position--;
+        }
+
+        if (position == page.length) {
+            return count;
+        }
+
+        int kept = Math.min(count, page.length - 1);
+        System.arraycopy(page, position, page, position + 1, kept - position);
+        page[position] = value;
+        return kept + 1;
+    }
+
+    /**
+     * Returns whether key is greater than bound, or equal to it if inclusive.
+     */
+    private boolean isAbove(K key, K bound, boolean inclusive) {
+        int comparison = comparator.compare(key, bound);
+        return comparison > 0 || (inclusive && comparison == 0);
+    }
+
+    private Node<K, V> put(Node<K, V> node, K key, V value) {
+        if (node == null) {
+            Node<K, V> created = new Node<>(owner, key, value, rankings.size());
+            update(created);
+            return created;
+        }
+
+        int comparison = comparator.compare(key, node.key);
+        Node<K, V> writable = writable(node);
+        if (comparison < 0) {
+            writable.left = put(node.left, key, value);
+        } else if (comparison > 0) {
+            writable.right = put(node.right, key, value);
+        } else {
+            writable.key = key;
+            writable.value = value;
+        }
+
+        return balance(writable);
+    }
+
+    /**
+     * Removes the key, which must be present, from the subtree.
+     */
+    private Node<K, V> remove(Node<K, V> node, K key) {
+        int comparison = comparator.compare(key, node.key);
+        if (comparison == 0 && (node.left == null || node.right == null)) {
+            return node.left == null ? node.right : node.left;
+        }
+
+        Node<K, V> writable = writable(node);
+        if (comparison < 0) {
+            writable.left = remove(node.left, key);
+        } else if (comparison > 0) {
+            writable.right = remove(node.right, key);
+        } else {
+            Node<K, V> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+
+            writable.key = successor.key;
+            writable.value = successor.value;
+            writable.right = removeFirst(node.right);
+        }
+
+        return balance(writable);
+    }
+
+    private Node<K, V> removeFirst(Node<K, V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+
+        Node<K, V> writable = writable(node);
+        writable.left = removeFirst(node.left);
+        return balance(writable);
+    }
+
+    /**
+     * Returns the node if this map owns it, otherwise a copy of it which this map owns.
+     */
+    private Node<K, V> writable(Node<K, V> node) {
+        return node.owner == owner ? node : node.copy(owner);
+    }
+
+    /**
+     * Restores the height difference of at most one between the subtrees of a node this map owns.
+     */
+    private Node<K, V> balance(Node<K, V> node) {
+        int difference = height(node.left) - height(node.right);
+        if (difference > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(writable(node.left));
+            }
+
+            return rotateRight(node);
+        }
+
+        if (difference < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(writable(node.right));
+            }
+
+            return rotateLeft(node);
+        }
+
+        update(node);
+        return node;
+    }
+
+    private Node<K, V> rotateRight(Node<K, V> node) {
+        Node<K, V> pivot = writable(node.left);
+        node.left = pivot.right;
+        update(node);
+        pivot.right = node;
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<K, V> rotateLeft(Node<K, V> node) {
+        Node<K, V> pivot = writable(node.right);
+        node.right = pivot.left;
+        update(node);
+        pivot.left = node;
+        update(pivot);
+        return pivot;
+    }
+
+    private void update(Node<K, V> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.size = 1 + size(node.left) + size(node.right);
+        for (int ranking = 0; ranking < node.best.length; ranking++) {
+            node.best[ranking] = better(ranking, node.value,
+                better(ranking, bestOf(node.left, ranking), bestOf(node.right, ranking)));
+        }
+    }
+
+    private V better(int ranking, V left, V right) {
+        if (left == null) {
+            return right;
+        }
+
+        if (right == null) {
+            return left;
+        }
+
+        return rankings.get(ranking).compare(right, left) < 0 ? right : left;
+    }
+
+    private V bestOf(Node<K, V> node, int ranking) {
+        return node == null ? null : node.best(ranking);
+    }
+
+    private static int height(Node<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node<K, V> implements Map.Entry<K, V> {
+        private final Object owner;
+        private K key;
+        private V value;
+        private Node<K, V> left;
+        private Node<K, V> right;
+        private int height;
+        private int size;
+        private final Object[] best;
+
+        Node(Object owner, K key, V value, int rankings) {
+            this.owner = owner;
+            this.best = new Object[rankings];
+            this.key = key;
+            this.value = value;
+        }
+
+        Node<K, V> copy(Object newOwner) {
+            Node<K, V> copy = new Node<>(newOwner, key, value, best.length);
+            System.arraycopy(best, 0, copy.best, 0, best.length);
+            copy.left = left;
+            copy.right = right;
+            copy.height = height;
+            copy.size = size;
+            return copy;
+        }
+
+        @SuppressWarnings("unchecked")
+        V best(int ranking) {
+            return (V) best[ranking];
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            throw new UnsupportedOperationException("Entries of a persistent map can't be changed.");
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A growable, ascending list of course ids.
+ * Ids are expected to be added in non-decreasing order; repeated ids are stored once.
+ * The ids are kept in blocks of up to {@value #BLOCK_SIZE}, found by their first id in a
+ * {@link PersistentSortedMap}, so a copy shares the blocks with the original and adding or removing an id copies
+ * one block and O(log n) nodes.
+ * Every list, including every copy, gets a unique stamp, so a list which has the stamp a result was computed
+ * from still has the ids it had then, as long as it is only changed before it is shared.
+ */
+class PostingList {
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int BLOCK_SIZE = 128;
+    private static final AtomicLong STAMPS = new AtomicLong();
+
+    private final long stamp;
+    private final PersistentSortedMap<Integer, Block> blocks;
+    private int size;
+
+    PostingList() {
+        this.stamp = STAMPS.incrementAndGet();
+        this.blocks = new PersistentSortedMap<>(Comparator.naturalOrder());
+        this.size = 0;
+    }
+
+    /**
+     * Creates a copy of the list. The original must not be changed afterwards, as the two share blocks.
+     */
+    PostingList(PostingList other) {
+        this.stamp = STAMPS.incrementAndGet();
+        this.blocks = new PersistentSortedMap<>(other.blocks);
+        this.size = other.size;
+    }
+
+    long stamp() {
+        return stamp;
+    }
+
+    void add(int id) {
+        Map.Entry<Integer, Block> last = blocks.lastEntry();
+        if (last != null) {
+            int first = last.getKey();
+            Block block = last.getValue();
+            if (block.ids[block.size - 1] == id) {
+                return;
+            }
+
+            if (block.size < BLOCK_SIZE) {
+                block = writable(first, block);
+                if (block.size == block.ids.length) {
+                    block.ids = Arrays.copyOf(block.ids, Math.min(BLOCK_SIZE, block.ids.length * 2));
+                }
+
+                block.ids[block.size++] = id;
+                size++;
+                return;
+            }
+        }
+
+        Block block = new Block(this, new int[INITIAL_CAPACITY], 0);
+        block.ids[block.size++] = id;
+        blocks.put(id, block);
+        size++;
+    }
+
+    /**
+     * Removes the id if present, keeping the remaining ids in ascending order.
+     */
+    void remove(int id) {
+        Map.Entry<Integer, Block> entry = blocks.floorEntry(id);
+        if (entry == null) {
+            return;
+        }
+
+        int first = entry.getKey();
+        Block block = entry.getValue();
+        int position = Arrays.binarySearch(block.ids, 0, block.size, id);
+        if (position < 0) {
+            return;
+        }
+
+        size--;
+        if (block.size == 1) {
+            blocks.remove(first);
+            return;
+        }
+
+        block = writable(first, block);
+        System.arraycopy(block.ids, position + 1, block.ids, position, block.size - position - 1);
+        block.size--;
+        if (position == 0) {
+            blocks.remove(first);
+            blocks.put(block.ids[0], block);
+        }
+    }
+
+    /**
+     * Returns the block stored under the given first id if this list owns it, otherwise a copy of it which this
+     * list owns and stores instead.
+     */
+    private Block writable(int first, Block block) {
+        if (block.owner == this) {
+            return block;
+        }
+
+        Block copy = new Block(this, block.ids.clone(), block.size);
+        blocks.put(first, copy);
+        return copy;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] toArray() {
+        int[] ids = new int[size];
+        int position = 0;
+        for (Block block : blocks.values()) {
+            System.arraycopy(block.ids, 0, ids, position, block.size);
+            position += block.size;
+        }
+
+        return ids;
+    }
+
+    /**
+     * Returns, in ascending order, the ids of the given ascending ids which are in this list.
+     */
+    int[] intersect(int[] ids) {
+        int[] result = new int[Math.min(ids.length, size)];
+        int count = 0;
+
+        int i = 0;
+        for (Block block : blocks.values()) {
+            int j = 0;
+            while (i < ids.length && j < block.size) {
+                if (ids[i] == block.ids[j]) {
+                    result[count++] = ids[i];
+                    i++;
+                    j++;
+                } else if (ids[i] < block.ids[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+
+            if (i == ids.length) {
+                break;
+            }
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+
+    private static final class Block {
+        private final PostingList owner;
+        private int[] ids;
+        private int size;
+
+        Block(PostingList owner, int[] ids, int size) {
+            this.owner = owner;
+            this.ids = ids;
+            this.size = size;
+        }
+    }
+}
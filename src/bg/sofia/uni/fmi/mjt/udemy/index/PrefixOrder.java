@@ -0,0 +1,40 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * Orders keys by the first characters of their text only, so that every key starting with the same characters is
+ * equal. A walk over sorted keys sets the length of the prefix to compare before each use, so one order serves a
+ * whole lookup without cutting the prefixes out of the keys. Not thread-safe.
+ */
+final class PrefixOrder<K> implements Comparator<K> {
+    private final Function<? super K, String> text;
+    private int length;
+
+    PrefixOrder(Function<? super K, String> text) {
+        this.text = text;
+        this.length = 0;
+    }
+
+    void setLength(int length) {
+        this.length = length;
+    }
+
+    @Override
+    public int compare(K left, K right) {
+        String leftText = text.apply(left);
+        String rightText = text.apply(right);
+        int leftLength = Math.min(length, leftText.length());
+        int rightLength = Math.min(length, rightText.length());
+
+        for (int i = 0; i < Math.min(leftLength, rightLength); i++) {
+            int difference = leftText.charAt(i) - rightText.charAt(i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+
+        return leftLength - rightLength;
+    }
+}
@@ -0,0 +1,41 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+/**
+ * Filters the course columns one id at a time.
+ */
+final class ScalarColumnScan implements ColumnScan {
+    @Override
+    public int scan(double[] prices, int[] minutes, byte[] categories, int size, int categoryMask, double minPrice,
+                    double maxPrice, int minMinutes, int maxMinutes, int[] matching) {
+        return scan(prices, minutes, categories, 0, size, categoryMask, minPrice, maxPrice, minMinutes, maxMinutes,
+            matching, 0);
+    }
+
+    /**
+     * Appends to matching, after the first count ids, the matching ids from from to to, exclusive, and returns the
+     * new count.
+     */
+    static int scan(double[] prices, int[] minutes, byte[] categories, int from, int to, int categoryMask,
+                    double minPrice, double maxPrice, int minMinutes, int maxMinutes, int[] matching, int count) {
+        boolean anyPrice = CourseColumns.isUnbounded(minPrice, maxPrice);
+        for (int id = from; id < to; id++) {
+            byte category = categories[id];
+            if (category == CourseColumns.NO_COURSE ||
+                (categoryMask != 0 && (category < 0 || (categoryMask & (1 << category)) == 0))) {
+                continue;
+            }
+
+            if ((anyPrice || prices[id] >= minPrice && prices[id] <= maxPrice) && minutes[id] >= minMinutes &&
+                minutes[id] <= maxMinutes) {
+                matching[count++] = id;
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public boolean isVectorized() {
+        return false;
+    }
+}
@@ -0,0 +1,172 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The terms of course names and descriptions, every maximal run of latin letters, with the number of courses
+ * containing each. Terms are kept sorted, so typo-tolerant lookups walk them as a trie the same way
+ * {@link NameIndex#findSimilar(String, int, int)} walks course names. Every term is a keyword matching the courses
+ * it comes from. A copy shares the terms with the original, so changing the terms of a course copies O(log n)
+ * nodes per term.
+ */
+public class TermIndex {
+    private final PersistentSortedMap<String, Integer> counts;
+
+    public TermIndex() {
+        this.counts = new PersistentSortedMap<>(Comparator.naturalOrder());
+    }
+
+    /**
+     * Creates a copy of the index. The original must not be changed afterwards, as the two share terms.
+     */
+    public TermIndex(TermIndex other) {
+        this.counts = new PersistentSortedMap<>(other.counts);
+    }
+
+    /**
+     * Adds the terms of the course.
+     */
+    public void add(Course course) {
+        for (String term : termsOf(course)) {
+            Integer count = counts.get(term);
+            counts.put(term, count == null ? 1 : count + 1);
+        }
+    }
+
+    /**
+     * Removes the terms of the course. The course must have the name and description it was added with.
+     */
+    public void remove(Course course) {
+        for (String term : termsOf(course)) {
+            Integer count = counts.get(term);
+            if (count == null) {
+                continue;
+            }
+
+            if (count == 1) {
+                counts.remove(term);
+            } else {
+                counts.put(term, count - 1);
+            }
+        }
+    }
+
+    private static Set<String> termsOf(Course course) {
+        Set<String> terms = new HashSet<>();
+        collectTerms(course.getName(), terms);
+        collectTerms(course.getDescription(), terms);
+        return terms;
+    }
+
+    private static void collectTerms(String text, Set<String> terms) {
+        int start = 0;
+        while (start < text.length()) {
+            if (!isLatinLetter(text.charAt(start))) {
+                start++;
+                continue;
+            }
+
+            int end = start + 1;
+            while (end < text.length() && isLatinLetter(text.charAt(end))) {
+                end++;
+            }
+
+            terms.add(text.substring(start, end));
+            start = end;
+        }
+    }
+
+    /**
+     * Returns the first limit terms within the given Levenshtein distance of the term, the closest first, then
+     * the ones contained in more courses, then in alphabetical order. The terms are walked once, keeping only the
+     * best limit terms found so far.
+     */
+    public String[] findSimilar(String term, int maxDistance, int limit) {
+        LevenshteinMatcher matcher = new LevenshteinMatcher(term, maxDistance);
+        PrefixOrder<String> prefixOrder = new PrefixOrder<>(Function.identity());
+        SimilarPage page = new SimilarPage(Math.min(limit, counts.size()));
+
+        Map.Entry<String, Integer> entry = counts.firstEntry();
+        while (entry != null) {
+            int distance = matcher.distance(entry.getKey());
+            if (distance >= 0) {
+                page.offer(distance, entry.getValue(), entry.getKey());
+            }
+
+            int deadEnd = matcher.deadEnd();
+            if (deadEnd < 0) {
+                entry = counts.higherEntry(entry.getKey());
+            } else {
+                prefixOrder.setLength(deadEnd);
+                entry = counts.higherEntry(entry.getKey(), prefixOrder);
+            }
+        }
+
+        return page.terms();
+    }
+
+    /**
+     * The best terms found so far by a similarity lookup, at most a fixed number, sorted by distance, then by
+     * descending course count, then alphabetically.
+     */
+    private static final class SimilarPage {
+        private final int[] distances;
+        private final int[] courseCounts;
+        private final String[] terms;
+        private int count;
+
+        SimilarPage(int capacity) {
+            this.distances = new int[capacity];
+            this.courseCounts = new int[capacity];
+            this.terms = new String[capacity];
+            this.count = 0;
+        }
+
+        void offer(int distance, int courseCount, String term) {
+            int position = count;
+            while (position > 0 && compare(position - 1, distance, courseCount, term) > 0) {
+                position--;
+            }
+
+            if (position == terms.length) {
+                return;
+            }
+
+            int kept = Math.min(count, terms.length - 1);
+            System.arraycopy(distances, position, distances, position + 1, kept - position);
+            System.arraycopy(courseCounts, position, courseCounts, position + 1, kept - position);
+            System.arraycopy(terms, position, terms, position + 1, kept - position);
+            distances[position] = distance;
+            courseCounts[position] = courseCount;
+            terms[position] = term;
+            count = kept + 1;
+        }
+
+        private int compare(int position, int distance, int courseCount, String term) {
+            if (distances[position] != distance) {
+                return Integer.compare(distances[position], distance);
+            }
+
+            if (courseCounts[position] != courseCount) {
+                return Integer.compare(courseCount, courseCounts[position]);
+            }
+
+            return terms[position].compareTo(term);
+        }
+
+        String[] terms() {
+            return Arrays.copyOf(terms, count);
+        }
+    }
+
+    private static boolean isLatinLetter(char symbol) {
+        return (symbol >= 'a' && symbol <= 'z') || (symbol >= 'A' && symbol <= 'Z');
+    }
+}
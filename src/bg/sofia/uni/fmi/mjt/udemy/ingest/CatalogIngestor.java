@@ -0,0 +1,338 @@
+package bg.sofia.uni.fmi.mjt.udemy.ingest;
+
+import bg.sofia.uni.fmi.mjt.udemy.Udemy;
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.Resource;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.ResourceDuration;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Streams course exports into a {@link Udemy} platform.
+ * A parser thread reads the input line by line, validates every course with its resources and hands batches of
+ * courses to the calling thread through a bounded queue; when the platform falls behind, the parser blocks.
+ * Memory is therefore bounded by the queue capacity times the batch size, whatever the size of the input.
+ * Malformed or invalid course records, and courses whose name is already taken, are skipped and reported instead of
+ * aborting the ingestion.
+ */
+public class CatalogIngestor {
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final Batch END_OF_INPUT = new Batch(new Course[0], new long[0]);
+
+    private final Udemy platform;
+    private final int batchSize;
+    private final int queueCapacity;
+    private Consumer<IngestionReport> progressListener;
+
+    public CatalogIngestor(Udemy platform) {
+        this(platform, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public CatalogIngestor(Udemy platform, int batchSize, int queueCapacity) {
+        if (platform == null) {
+            throw new IllegalArgumentException("Platform can't be null.");
+        }
+
+        if (batchSize <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Batch size and queue capacity must be positive numbers.");
+        }
+
+        this.platform = platform;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.progressListener = null;
+    }
+
+    /**
+     * Sets a listener called with the running totals after every batch fed into the platform.
+     */
+    public void setProgressListener(Consumer<IngestionReport> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Ingests a UTF-8 encoded file.
+     *
+     * @throws IOException if the file cannot be read.
+     */
+    public IngestionReport ingest(Path file, IngestionFormat format) throws IOException, InterruptedException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return ingest(reader, format);
+        }
+    }
+
+    /**
+     * Ingests everything the reader provides and returns the final totals.
+     *
+     * @throws IOException if the input cannot be read.
+     */
+    public IngestionReport ingest(Reader input, IngestionFormat format) throws IOException, InterruptedException {
+        if (input == null || format == null) {
+            throw new IllegalArgumentException("Input and format can't be null.");
+        }
+
+        long start = System.nanoTime();
+        Parsing parsing = new Parsing(new BufferedReader(input), format);
+        Thread parser = new Thread(parsing, "catalog-ingestion-parser");
+        parser.setDaemon(true);
+        parser.start();
+
+        long added = 0;
+        try {
+            Batch batch;
+            while ((batch = parsing.batches.take()) != END_OF_INPUT) {
+                added += add(batch, parsing);
+
+                if (progressListener != null) {
+                    progressListener.accept(parsing.report(added, start));
+                }
+            }
+        } finally {
+            parser.interrupt();
+            parser.join();
+        }
+
+        Throwable failure = parsing.failure.get();
+        if (failure instanceof UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (failure instanceof RuntimeException e) {
+            throw e;
+        }
+
+        return parsing.report(added, start);
+    }
+
+    /**
+     * Adds the batch in one step. If the platform rejects it, because a name is already taken, the courses are
+     * added one by one and the ones with a taken name are rejected.
+     *
+     * @return the number of courses added.
+     */
+    private int add(Batch batch, Parsing parsing) {
+        try {
+            platform.addCourses(batch.courses());
+            return batch.courses().length;
+        } catch (IllegalArgumentException e) {
+            int added = 0;
+            for (int i = 0; i < batch.courses().length; i++) {
+                try {
+                    platform.addCourse(batch.courses()[i]);
+                    added++;
+                } catch (IllegalArgumentException rejected) {
+                    parsing.reject(batch.lineNumbers()[i], rejected.getMessage());
+                }
+            }
+
+            return added;
+        }
+    }
+
+    /**
+     * Courses handed to the platform together, with the lines their records start at.
+     */
+    private record Batch(Course[] courses, long[] lineNumbers) {
+    }
+
+    /**
+     * The parser side of one ingestion.
+     */
+    private final class Parsing implements Runnable {
+        private final BufferedReader reader;
+        private final IngestionFormat format;
+        private final BlockingQueue<Batch> batches;
+        private final AtomicReference<Throwable> failure;
+        private final AtomicLong rejected;
+        private final AtomicLong linesRead;
+        private final List<String> errors;
+
+        private List<Course> batch;
+        private long[] batchLines;
+        private PendingCourse pending;
+
+        Parsing(BufferedReader reader, IngestionFormat format) {
+            this.reader = reader;
+            this.format = format;
+            this.batches = new ArrayBlockingQueue<>(queueCapacity);
+            this.failure = new AtomicReference<>();
+            this.rejected = new AtomicLong();
+            this.linesRead = new AtomicLong();
+            this.errors = new ArrayList<>();
+            this.batch = new ArrayList<>(batchSize);
+            this.batchLines = new long[batchSize];
+            this.pending = null;
+        }
+
+        @Override
+        public void run() {
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    long lineNumber = linesRead.incrementAndGet();
+                    if (!line.isBlank()) {
+                        accept(lineNumber, line);
+                    }
+                }
+
+                complete(pending);
+                if (!batch.isEmpty()) {
+                    handOver();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                failure.set(new UncheckedIOException(e));
+            } catch (RuntimeException e) {
+                failure.set(e);
+            }
+
+            try {
+                batches.put(END_OF_INPUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void accept(long lineNumber, String line) throws InterruptedException {
+            Map<String, String> fields;
+            try {
+                fields = RecordParser.parse(line, format);
+            } catch (IllegalArgumentException e) {
+                complete(pending);
+                pending = null;
+                reject(lineNumber, e.getMessage());
+                return;
+            }
+
+            String type = fields.get(RecordParser.TYPE);
+            if (RecordParser.COURSE.equals(type)) {
+                complete(pending);
+                pending = new PendingCourse(lineNumber, fields);
+            } else if (RecordParser.RESOURCE.equals(type) && pending != null) {
+                pending.resources.add(fields);
+            } else if (RecordParser.RESOURCE.equals(type)) {
+                addError(lineNumber, "Resource record without a preceding course.");
+            } else {
+                complete(pending);
+                pending = null;
+                reject(lineNumber, "Unknown record type %s.".formatted(type));
+            }
+        }
+
+        private void complete(PendingCourse course) throws InterruptedException {
+            if (course == null) {
+                return;
+            }
+
+            try {
+                batch.add(course.build());
+            } catch (IllegalArgumentException e) {
+                reject(course.lineNumber, e.getMessage());
+                return;
+            }
+
+            batchLines[batch.size() - 1] = course.lineNumber;
+            if (batch.size() == batchSize) {
+                handOver();
+            }
+        }
+
+        private void handOver() throws InterruptedException {
+            batches.put(new Batch(batch.toArray(new Course[0]), Arrays.copyOf(batchLines, batch.size())));
+            batch = new ArrayList<>(batchSize);
+        }
+
+        private void reject(long lineNumber, String reason) {
+            rejected.incrementAndGet();
+            addError(lineNumber, reason);
+        }
+
+        private void addError(long lineNumber, String reason) {
+            synchronized (errors) {
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add("Line %d: %s".formatted(lineNumber, reason));
+                }
+            }
+        }
+
+        IngestionReport report(long added, long start) {
+            List<String> reportedErrors;
+            synchronized (errors) {
+                reportedErrors = List.copyOf(errors);
+            }
+
+            return new IngestionReport(added, rejected.get(), linesRead.get(),
+                Duration.ofNanos(System.nanoTime() - start), reportedErrors);
+        }
+    }
+
+    /**
+     * A course record together with the resource records read after it.
+     */
+    private static final class PendingCourse {
+        private final long lineNumber;
+        private final Map<String, String> fields;
+        private final List<Map<String, String>> resources;
+
+        PendingCourse(long lineNumber, Map<String, String> fields) {
+            this.lineNumber = lineNumber;
+            this.fields = fields;
+            this.resources = new ArrayList<>();
+        }
+
+        /**
+         * Validates the record and builds the course.
+         *
+         * @throws IllegalArgumentException if a field is missing or invalid, a resource is longer than
+         *                                  {@link ResourceDuration} allows or the course is longer than
+         *                                  {@link bg.sofia.uni.fmi.mjt.udemy.course.duration.CourseDuration} allows.
+         */
+        Course build() {
+            String name = required(fields, RecordParser.NAME);
+            String description = required(fields, RecordParser.DESCRIPTION);
+            double price = Double.parseDouble(required(fields, RecordParser.PRICE));
+            if (!Double.isFinite(price) || price < 0) {
+                throw new IllegalArgumentException("Invalid price %s.".formatted(price));
+            }
+            Category category = Category.valueOf(required(fields, RecordParser.CATEGORY));
+
+            Resource[] content = new Resource[resources.size()];
+            for (int i = 0; i < content.length; i++) {
+                Map<String, String> resource = resources.get(i);
+                int minutes = Integer.parseInt(required(resource, RecordParser.MINUTES));
+                content[i] = new Resource(required(resource, RecordParser.NAME), new ResourceDuration(minutes));
+            }
+
+            return new Course(name, description, price, content, category);
+        }
+
+        private static String required(Map<String, String> fields, String field) {
+            String value = fields.get(field);
+            if (value == null || value.isBlank()) {
+                throw new IllegalArgumentException("Missing %s.".formatted(field));
+            }
+
+            return value;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package bg.sofia.uni.fmi.mjt.udemy.ingest;
+
+/**
+ * The supported catalog export formats. Both are line based: a course record is followed by the records of
+ * its resources.
+ *
+ * <pre>
+ * CSV:        course,&lt;name&gt;,&lt;description&gt;,&lt;price&gt;,&lt;CATEGORY&gt;
+ *             resource,&lt;name&gt;,&lt;minutes&gt;
+ * JSON_LINES: {"type":"course","name":"...","description":"...","price":9.99,"category":"MUSIC"}
+ *             {"type":"resource","name":"...","minutes":30}
+ * </pre>
+ * CSV fields containing commas or quotes are enclosed in double quotes, with embedded quotes doubled.
+ */
+public enum IngestionFormat {
+    CSV,
+    JSON_LINES
+}
@@ -0,0 +1,25 @@
+package bg.sofia.uni.fmi.mjt.udemy.ingest;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Progress or outcome of an ingestion.
+ *
+ * @param coursesAdded    the courses fed into the platform so far.
+ * @param coursesRejected the course records skipped because they were malformed or failed validation.
+ * @param linesRead       the input lines consumed so far.
+ * @param elapsed         the time since the ingestion started.
+ * @param errors          the first rejection reasons, with their line numbers.
+ */
+public record IngestionReport(long coursesAdded, long coursesRejected, long linesRead, Duration elapsed,
+                              List<String> errors) {
+
+    /**
+     * Returns the number of courses added per second.
+     */
+    public double coursesPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0.0 : coursesAdded * 1_000_000_000.0 / nanos;
+    }
+}
@@ -0,0 +1,196 @@
+package bg.sofia.uni.fmi.mjt.udemy.ingest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits one input line into named fields. Throws IllegalArgumentException for malformed lines.
+ */
+final class RecordParser {
+    static final String TYPE = "type";
+    static final String NAME = "name";
+    static final String DESCRIPTION = "description";
+    static final String PRICE = "price";
+    static final String CATEGORY = "category";
+    static final String MINUTES = "minutes";
+    static final String COURSE = "course";
+    static final String RESOURCE = "resource";
+
+    private static final String[] COURSE_COLUMNS = {TYPE, NAME, DESCRIPTION, PRICE, CATEGORY};
+    private static final String[] RESOURCE_COLUMNS = {TYPE, NAME, MINUTES};
+
+    private RecordParser() {
+    }
+
+    static Map<String, String> parse(String line, IngestionFormat format) {
+        return format == IngestionFormat.CSV ? parseCsv(line) : parseJson(line);
+    }
+
+    static Map<String, String> parseCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char symbol = line.charAt(i);
+            if (quoted) {
+                if (symbol == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (symbol == '"') {
+                    quoted = false;
+                } else {
+                    value.append(symbol);
+                }
+            } else if (symbol == '"') {
+                quoted = true;
+            } else if (symbol == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(symbol);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field.");
+        }
+        values.add(value.toString());
+
+        String[] columns = switch (values.get(0)) {
+            case COURSE -> COURSE_COLUMNS;
+            case RESOURCE -> RESOURCE_COLUMNS;
+            default -> throw new IllegalArgumentException("Unknown record type %s.".formatted(values.get(0)));
+        };
+
+        if (values.size() != columns.length) {
+            throw new IllegalArgumentException(
+                "Expected %d fields but found %d.".formatted(columns.length, values.size()));
+        }
+
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            fields.put(columns[i], values.get(i));
+        }
+
+        return fields;
+    }
+
+    /**
+     * Parses a flat JSON object whose values are strings, numbers, booleans or null.
+     */
+    static Map<String, String> parseJson(String line) {
+        Map<String, String> fields = new HashMap<>();
+        int[] position = {skipWhitespace(line, 0)};
+
+        expect(line, position, '{');
+        if (peek(line, position) == '}') {
+            position[0]++;
+            return fields;
+        }
+
+        while (true) {
+            String key = readString(line, position);
+            expect(line, position, ':');
+            fields.put(key, readValue(line, position));
+
+            char next = peek(line, position);
+            position[0]++;
+            if (next == '}') {
+                break;
+            }
+            if (next != ',') {
+                throw new IllegalArgumentException("Expected , or } at position %d.".formatted(position[0] - 1));
+            }
+        }
+
+        if (skipWhitespace(line, position[0]) != line.length()) {
+            throw new IllegalArgumentException("Unexpected content after the JSON object.");
+        }
+
+        return fields;
+    }
+
+    private static String readValue(String line, int[] position) {
+        char first = peek(line, position);
+        if (first == '"') {
+            return readString(line, position);
+        }
+
+        if (first == '{' || first == '[') {
+            throw new IllegalArgumentException("Nested values are not supported.");
+        }
+
+        int start = position[0];
+        while (position[0] < line.length() && ",} \t".indexOf(line.charAt(position[0])) < 0) {
+            position[0]++;
+        }
+
+        String literal = line.substring(start, position[0]);
+        return literal.equals("null") ? null : literal;
+    }
+
+    private static String readString(String line, int[] position) {
+        expect(line, position, '"');
+
+        StringBuilder value = new StringBuilder();
+        while (position[0] < line.length()) {
+            char symbol = line.charAt(position[0]++);
+            if (symbol == '"') {
+                return value.toString();
+            }
+
+            if (symbol != '\\') {
+                value.append(symbol);
+                continue;
+            }
+
+            if (position[0] >= line.length()) {
+                break;
+            }
+
+            char escaped = line.charAt(position[0]++);
+            switch (escaped) {
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                case 't' -> value.append('\t');
+                case 'u' -> {
+                    if (position[0] + 4 > line.length()) {
+                        throw new IllegalArgumentException("Truncated unicode escape.");
+                    }
+                    value.append((char) Integer.parseInt(line.substring(position[0], position[0] + 4), 16));
+                    position[0] += 4;
+                }
+                default -> value.append(escaped);
+            }
+        }
+
+        throw new IllegalArgumentException("Unterminated string.");
+    }
+
+    private static void expect(String line, int[] position, char expected) {
+        if (peek(line, position) != expected) {
+            throw new IllegalArgumentException("Expected %s at position %d.".formatted(expected, position[0]));
+        }
+        position[0]++;
+    }
+
+    private static char peek(String line, int[] position) {
+        position[0] = skipWhitespace(line, position[0]);
+        if (position[0] >= line.length()) {
+            throw new IllegalArgumentException("Unexpected end of line.");
+        }
+        return line.charAt(position[0]);
+    }
+
+    private static int skipWhitespace(String line, int position) {
+        while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+}
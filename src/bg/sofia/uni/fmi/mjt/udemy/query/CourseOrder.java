@@ -0,0 +1,37 @@
+package bg.sofia.uni.fmi.mjt.udemy.query;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+
+import java.util.Comparator;
+
+/**
+ * The orders in which query results can be paged, all ascending.
+ * Courses with equal keys are ordered by their catalog id, so every order is total and pages never overlap.
+ */
+public enum CourseOrder {
+    PRICE(Comparator.comparingDouble(course -> priceKey(course.getPrice()))),
+    DURATION(Comparator.comparingInt(course -> course.getTotalTime().toMinutes())),
+    NAME(Comparator.comparing(Course::getName, Comparator.nullsLast(Comparator.naturalOrder())));
+
+    private final Comparator<Course> byKey;
+
+    CourseOrder(Comparator<Course> byKey) {
+        this.byKey = byKey;
+    }
+
+    /**
+     * Compares two courses of the catalog, identified by their ids, in this order.
+     */
+    public int compare(int leftId, Course left, int rightId, Course right) {
+        int byKeys = byKey.compare(left, right);
+        return byKeys != 0 ? byKeys : Integer.compare(leftId, rightId);
+    }
+
+    /**
+     * Returns the price as a sort key. -0.0 is keyed as 0.0, as the two are equal prices, so a tie between them
+     * goes to the lower id like any other tie.
+     */
+    public static double priceKey(double price) {
+        return price == 0.0 ? 0.0 : price;
+    }
+}
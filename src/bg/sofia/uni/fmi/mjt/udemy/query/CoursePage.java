@@ -0,0 +1,16 @@
+package bg.sofia.uni.fmi.mjt.udemy.query;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+
+/**
+ * One page of query results.
+ *
+ * @param courses the courses of the page, in the order of the query.
+ * @param next    the cursor of the following page, or null if this is the last page.
+ */
+public record CoursePage(Course[] courses, PageCursor next) {
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
@@ -0,0 +1,116 @@
+package bg.sofia.uni.fmi.mjt.udemy.query;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.CourseDuration;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A search combining several criteria, all of which a course must meet, with the order and page of the results.
+ * Queries are immutable; start from {@link #all()} and narrow it down with the {@code with...} methods.
+ * The price range from negative to positive infinity is no criterion at all: it matches every course, including
+ * the ones with a NaN price, which any narrower range leaves out.
+ *
+ * @param keyword    a keyword the name or the description must contain, or null for any.
+ * @param categories the categories a course must belong to, or an empty set for any.
+ * @param minPrice   the lowest price, inclusive.
+ * @param maxPrice   the highest price, inclusive.
+ * @param minMinutes the shortest total duration in minutes, inclusive.
+ * @param maxMinutes the longest total duration in minutes, inclusive.
+ * @param order      the order of the results.
+ * @param limit      the maximal number of courses in the page.
+ * @param after      the cursor of the previous page, or null for the first page.
+ */
+public record CourseQuery(String keyword, Set<Category> categories, double minPrice, double maxPrice,
+                          int minMinutes, int maxMinutes, CourseOrder order, int limit, PageCursor after) {
+
+    public CourseQuery {
+        if (categories == null || order == null) {
+            throw new IllegalArgumentException("Categories and order can't be null.");
+        }
+
+        for (Category category : categories) {
+            if (category == null) {
+                throw new IllegalArgumentException("Category can't be null.");
+            }
+        }
+
+        if (Double.isNaN(minPrice) || Double.isNaN(maxPrice) || minPrice > maxPrice) {
+            throw new IllegalArgumentException("Invalid price range [%s, %s].".formatted(minPrice, maxPrice));
+        }
+
+        if (minMinutes > maxMinutes) {
+            throw new IllegalArgumentException("Invalid duration range [%d, %d].".formatted(minMinutes, maxMinutes));
+        }
+
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be a positive number.");
+        }
+
+        if (after != null && after.order() != order) {
+            throw new IllegalArgumentException("Cursor was issued for order %s.".formatted(after.order()));
+        }
+
+        EnumSet<Category> copy = EnumSet.noneOf(Category.class);
+        copy.addAll(categories);
+        categories = Collections.unmodifiableSet(copy);
+    }
+
+    /**
+     * Returns the query matching every course, by price, in a single page.
+     */
+    public static CourseQuery all() {
+        return new CourseQuery(null, Set.of(), Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+            0, Integer.MAX_VALUE, CourseOrder.PRICE, Integer.MAX_VALUE, null);
+    }
+
+    public CourseQuery withKeyword(String keyword) {
+        return new CourseQuery(keyword, categories, minPrice, maxPrice, minMinutes, maxMinutes, order, limit, after);
+    }
+
+    public CourseQuery withCategories(Category... categories) {
+        return new CourseQuery(keyword, new HashSet<>(Arrays.asList(categories)), minPrice, maxPrice,
+            minMinutes, maxMinutes, order, limit, after);
+    }
+
+    public CourseQuery withPriceBetween(double minPrice, double maxPrice) {
+        return new CourseQuery(keyword, categories, minPrice, maxPrice, minMinutes, maxMinutes, order, limit, after);
+    }
+
+    public CourseQuery withDurationBetween(CourseDuration minDuration, CourseDuration maxDuration) {
+        return new CourseQuery(keyword, categories, minPrice, maxPrice,
+            minDuration.toMinutes(), maxDuration.toMinutes(), order, limit, after);
+    }
+
+    public CourseQuery withMaxDuration(CourseDuration maxDuration) {
+        return new CourseQuery(keyword, categories, minPrice, maxPrice,
+            minMinutes, maxDuration.toMinutes(), order, limit, after);
+    }
+
+    public CourseQuery withOrder(CourseOrder order) {
+        return new CourseQuery(keyword, categories, minPrice, maxPrice, minMinutes, maxMinutes, order, limit, null);
+    }
+
+    public CourseQuery withLimit(int limit) {
+        return new CourseQuery(keyword, categories, minPrice, maxPrice, minMinutes, maxMinutes, order, limit, after);
+    }
+
+    /**
+     * Returns the query for the page following the one which returned the cursor.
+     */
+    public CourseQuery withCursor(PageCursor after) {
+        return new CourseQuery(keyword, categories, minPrice, maxPrice, minMinutes, maxMinutes, order, limit, after);
+    }
+
+    public boolean hasPriceRange() {
+        return minPrice != Double.NEGATIVE_INFINITY || maxPrice != Double.POSITIVE_INFINITY;
+    }
+
+    public boolean hasDurationRange() {
+        return minMinutes > 0 || maxMinutes != Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,22 @@
+package bg.sofia.uni.fmi.mjt.udemy.query;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+
+/**
+ * Marks where a page ended: the next page starts with the first course ordered after the last one returned.
+ * A cursor stays valid while the catalog changes; courses added or removed after it was issued are simply
+ * included in or left out of the following pages.
+ *
+ * @param order the order of the query that issued the cursor.
+ * @param id    the catalog id of the last course returned.
+ * @param last  the last course returned.
+ */
+public record PageCursor(CourseOrder order, int id, Course last) {
+
+    /**
+     * Returns whether the course comes after the cursor in its order.
+     */
+    public boolean isBefore(int otherId, Course other) {
+        return order.compare(id, last, otherId, other) < 0;
+    }
+}
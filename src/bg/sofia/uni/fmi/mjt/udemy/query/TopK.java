@@ -0,0 +1,54 @@
+package bg.sofia.uni.fmi.mjt.udemy.query;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+
+import java.util.PriorityQueue;
+import java.util.function.IntFunction;
+
+/**
+ * Selects one page out of unordered matches with a heap bounded by the page size.
+ */
+public final class TopK {
+    private TopK() {
+    }
+
+    /**
+     * Returns the first limit courses among the ids, in the given order, that come after the cursor.
+     * The heap holds at most one course more than the page, and never more than there are ids.
+     *
+     * @param ids        the catalog ids of the matches, in any order.
+     * @param courseById resolves an id to its course.
+     * @param after      the cursor of the previous page, or null for the first page.
+     */
+    public static CoursePage select(int[] ids, IntFunction<Course> courseById, CourseOrder order, int limit,
+                                    PageCursor after) {
+        int pageSize = Math.min(limit, ids.length);
+        PriorityQueue<Integer> worstFirst = new PriorityQueue<>(pageSize + 1,
+            (left, right) -> order.compare(right, courseById.apply(right), left, courseById.apply(left)));
+        int eligible = 0;
+
+        for (int id : ids) {
+            Course course = courseById.apply(id);
+            if (after != null && !after.isBefore(id, course)) {
+                continue;
+            }
+
+            eligible++;
+            worstFirst.add(id);
+            if (worstFirst.size() > pageSize) {
+                worstFirst.poll();
+            }
+        }
+
+        int size = worstFirst.size();
+        int[] pageIds = new int[size];
+        Course[] page = new Course[size];
+        for (int i = size - 1; i >= 0; i--) {
+            pageIds[i] = worstFirst.poll();
+            page[i] = courseById.apply(pageIds[i]);
+        }
+
+        PageCursor next = eligible > pageSize ? new PageCursor(order, pageIds[size - 1], page[size - 1]) : null;
+        return new CoursePage(page, next);
+    }
+}
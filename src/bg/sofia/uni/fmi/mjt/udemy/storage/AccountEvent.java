@@ -0,0 +1,47 @@
+package bg.sofia.uni.fmi.mjt.udemy.storage;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+
+/**
+ * One entry of the {@link AccountJournal}: a change of an account, of the catalog or of the account set.
+ *
+ * @param lsn        the log sequence number, increasing by one with every appended event.
+ * @param type       the kind of change.
+ * @param username   the account the event belongs to, empty for catalog changes.
+ * @param courseName the course of resource and course completions, removals and price updates, empty for other
+ *                   events.
+ * @param names      the completed resource names, empty for other events.
+ * @param amount     the top-up amount, the amount charged for a purchase, the grade of a completed course or the
+ *                   new price of a course.
+ * @param courses    the purchased or added courses, or the courses an added account owns, empty for other
+ *                   events.
+ * @param state      the state of an added account as captured by {@link
+ *                   bg.sofia.uni.fmi.mjt.udemy.account.AccountBase#captureState()}, empty for other events.
+ */
+public record AccountEvent(long lsn, Type type, String username, String courseName, String[] names, double amount,
+                           Course[] courses, byte[] state) {
+
+    public enum Type {
+        TOP_UP(false),
+        PURCHASE(false),
+        RESOURCES_COMPLETED(false),
+        COURSE_COMPLETED(false),
+        COURSES_ADDED(true),
+        COURSE_REMOVED(true),
+        PRICE_UPDATED(true),
+        ACCOUNT_ADDED(true);
+
+        private final boolean platformChange;
+
+        Type(boolean platformChange) {
+            this.platformChange = platformChange;
+        }
+
+        /**
+         * Returns whether events of this type change the catalog or the account set rather than one account.
+         */
+        public boolean isPlatformChange() {
+            return platformChange;
+        }
+    }
+}
@@ -0,0 +1,722 @@
+package bg.sofia.uni.fmi.mjt.udemy.storage;
+
+import bg.sofia.uni.fmi.mjt.udemy.CatalogEventListener;
+import bg.sofia.uni.fmi.mjt.udemy.Udemy;
+import bg.sofia.uni.fmi.mjt.udemy.account.Account;
+import bg.sofia.uni.fmi.mjt.udemy.account.AccountBase;
+import bg.sofia.uni.fmi.mjt.udemy.account.AccountEventListener;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.Resource;
+import bg.sofia.uni.fmi.mjt.udemy.exception.AccountNotFoundException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.CourseNotCompletedException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.CourseNotFoundException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.CourseNotPurchasedException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.ResourceNotFoundException;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Durable, append-only log of account changes and of the platform changes they depend on.
+ * Attached to accounts as their {@link AccountEventListener} and to the platform as its
+ * {@link CatalogEventListener}, it only queues the encoded event on the calling thread; a background writer
+ * appends everything queued since its last write and forces it to disk with a single fsync (group commit).
+ * Callers which need durability wait with {@link #awaitDurable(long)}.
+ * Events are queued before the change is applied, so once the writer has failed or the journal is closed,
+ * changes are rejected with an exception and the accounts stay as the journal describes them.
+ *
+ * <p>The file starts with a header holding the lsn the journal continues from, so numbering never restarts
+ * after the events before it were truncated. Every record is framed as an int payload length, an int CRC32 of
+ * the payload and the payload itself, so a torn last record is detected and dropped when the journal is opened
+ * or replayed.
+ */
+public final class AccountJournal implements AccountEventListener, CatalogEventListener, AutoCloseable {
+    private static final int MAGIC = 0x55444D4A;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES + Long.BYTES;
+    private static final int FRAME_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int READ_BUFFER_BYTES = 1 << 16;
+    private static final int MAX_PAYLOAD_BYTES = 1 << 24;
+    private static final String NO_USER = "";
+    private static final String NO_COURSE = "";
+    private static final String[] NO_NAMES = new String[0];
+    private static final Course[] NO_COURSES = new Course[0];
+    private static final byte[] NO_STATE = new byte[0];
+
+    private final Path path;
+    private final Thread writer;
+    private FileChannel channel;
+
+    private List<PendingEvent> pending;
+    private long baseLsn;
+    private long lastLsn;
+    private long durableLsn;
+    private long truncateRequest;
+    private long truncatedThrough;
+    private IOException failure;
+    private boolean closed;
+
+    private AccountJournal(Path path, FileChannel channel, long baseLsn, long lastLsn) {
+        this.path = path;
+        this.channel = channel;
+        this.pending = new ArrayList<>();
+        this.baseLsn = baseLsn;
+        this.lastLsn = lastLsn;
+        this.durableLsn = lastLsn;
+        this.truncateRequest = 0;
+        this.truncatedThrough = 0;
+        this.failure = null;
+        this.closed = false;
+        this.writer = new Thread(this::writeLoop, "account-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Opens the journal for appending, creating the file if needed.
+     * A torn record at the end of the file is truncated and numbering continues after the last intact event,
+     * or after the lsn the file was last truncated through if it is larger.
+     *
+     * @throws IOException if the file cannot be opened or is not a journal.
+     */
+    public static AccountJournal open(Path path) throws IOException {
+        long baseLsn = 0;
+        long lastLsn = 0;
+        long validLength = 0;
+
+        if (Files.exists(path)) {
+            try (JournalReader reader = new JournalReader(path)) {
+                AccountEvent event;
+                while ((event = reader.next()) != null) {
+                    lastLsn = event.lsn();
+                }
+                baseLsn = reader.baseLsn();
+                validLength = reader.validLength();
+            }
+        }
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (validLength < HEADER_BYTES) {
+            channel.truncate(0);
+            writeHeader(channel, baseLsn);
+            validLength = HEADER_BYTES;
+        }
+
+        channel.truncate(validLength);
+        channel.position(validLength);
+        return new AccountJournal(path, channel, baseLsn, Math.max(baseLsn, lastLsn));
+    }
+
+    private static void writeHeader(FileChannel target, long baseLsn) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).putLong(baseLsn).flip();
+        while (header.hasRemaining()) {
+            target.write(header);
+        }
+        target.force(false);
+    }
+
+    /**
+     * Re-applies every intact event of the journal to the platform, in order.
+     * It must run before a journal is attached to the platform and its accounts, on a platform in the state it
+     * had when the journal was started.
+     *
+     * @return the lsn of the last replayed event, or 0 if the journal is empty or does not exist.
+     * @throws IOException if the file cannot be read or an event refers to an unknown account, course or resource.
+     */
+    public static long replay(Path path, Udemy platform) throws IOException {
+        return replay(path, platform, 0, Map.of());
+    }
+
+    /**
+     * Re-applies the intact events with lsn greater than afterLsn, as {@link #replay(Path, Udemy)} does, skipping
+     * the events of every account up to the lsn its state was captured at. Accounts added by a replayed event
+     * are captured at that event.
+     *
+     * <p>The events of different accounts between two platform changes are independent, so they are applied in
+     * parallel, one account per task, while the events of each account keep their journal order.
+     *
+     * @param capturedLsns the lsn up to which each account's state already reflects its events.
+     * @return the lsn of the last replayed event, or afterLsn if there was none.
+     * @throws IOException if the file cannot be read or an event refers to an unknown account, course or resource.
+     */
+    public static long replay(Path path, Udemy platform, long afterLsn, Map<String, Long> capturedLsns)
+        throws IOException {
+        List<AccountEvent> tail = new ArrayList<>();
+        long lastLsn = read(path, afterLsn, tail::add);
+
+        Map<String, Long> applied = new HashMap<>(capturedLsns);
+        for (AccountEvent event : tail) {
+            if (event.type() == AccountEvent.Type.ACCOUNT_ADDED) {
+                applied.put(event.username(), event.lsn());
+            }
+        }
+
+        Map<String, List<AccountEvent>> accountEvents = new HashMap<>();
+        for (AccountEvent event : tail) {
+            if (event.type().isPlatformChange()) {
+                applyInParallel(accountEvents, platform);
+                accountEvents.clear();
+                apply(event, platform);
+            } else if (event.lsn() > applied.getOrDefault(event.username(), 0L)) {
+                accountEvents.computeIfAbsent(event.username(), username -> new ArrayList<>()).add(event);
+            }
+        }
+        applyInParallel(accountEvents, platform);
+
+        return lastLsn;
+    }
+
+    private static void applyInParallel(Map<String, List<AccountEvent>> accountEvents, Udemy platform)
+        throws IOException {
+        try {
+            accountEvents.values().parallelStream().forEach(events -> {
+                for (AccountEvent event : events) {
+                    try {
+                        apply(event, platform);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Passes every intact event with lsn greater than afterLsn to the consumer, in order.
+     *
+     * @return the lsn of the last event passed, or afterLsn if there was none.
+     * @throws IOException if the file cannot be read.
+     */
+    public static long read(Path path, long afterLsn, Consumer<AccountEvent> consumer) throws IOException {
+        if (!Files.exists(path)) {
+            return afterLsn;
+        }
+
+        long lastLsn = afterLsn;
+        try (JournalReader reader = new JournalReader(path)) {
+            AccountEvent event;
+            while ((event = reader.next()) != null) {
+                if (event.lsn() > afterLsn) {
+                    consumer.accept(event);
+                    lastLsn = event.lsn();
+                }
+            }
+        }
+
+        return lastLsn;
+    }
+
+    /**
+     * Applies a single event to the platform. Purchased courses are taken from the catalog, or from the event if
+     * they are no longer in it; completions apply to the course the account owns.
+     *
+     * @throws IOException if the event refers to an unknown account, course or resource.
+     */
+    public static void apply(AccountEvent event, Udemy platform) throws IOException {
+        try {
+            switch (event.type()) {
+                case TOP_UP -> platform.getAccount(event.username()).addToBalance(event.amount());
+                case PURCHASE -> {
+                    Course[] courses = new Course[event.courses().length];
+                    for (int i = 0; i < courses.length; i++) {
+                        courses[i] = catalogCourseOr(platform, event.courses()[i]);
+                    }
+                    platform.getAccount(event.username()).restorePurchase(courses, event.amount());
+                }
+                case RESOURCES_COMPLETED -> {
+                    AccountBase account = platform.getAccount(event.username());
+                    Course course = ownedCourse(account, event.courseName());
+                    account.completeResourcesFromCourse(course, resourcesOf(course, event.names()));
+                }
+                case COURSE_COMPLETED -> {
+                    AccountBase account = platform.getAccount(event.username());
+                    account.completeCourse(ownedCourse(account, event.courseName()), event.amount());
+                }
+                case COURSES_ADDED -> platform.addCourses(event.courses());
+                case COURSE_REMOVED -> platform.removeCourse(event.courseName());
+                case PRICE_UPDATED -> platform.updatePrice(event.courseName(), event.amount());
+                case ACCOUNT_ADDED -> {
+                    Map<String, Course> owned = new HashMap<>();
+                    for (Course course : event.courses()) {
+                        owned.put(course.getName(), catalogCourseOr(platform, course));
+                    }
+                    platform.addAccount(AccountBase.restoreState(event.state(), owned::get));
+                }
+            }
+        } catch (AccountNotFoundException | CourseNotFoundException | CourseNotPurchasedException
+                 | CourseNotCompletedException | ResourceNotFoundException | IllegalArgumentException e) {
+            throw new IOException("Journal event %d could not be replayed.".formatted(event.lsn()), e);
+        }
+    }
+
+    private static Course catalogCourseOr(Udemy platform, Course recorded) {
+        try {
+            return platform.findByName(recorded.getName());
+        } catch (CourseNotFoundException e) {
+            return recorded;
+        }
+    }
+
+    private static Course ownedCourse(AccountBase account, String name) throws CourseNotPurchasedException {
+        for (Course course : account.getOwnedCourses()) {
+            if (course.getName().equals(name)) {
+                return course;
+            }
+        }
+
+        throw new CourseNotPurchasedException("Course %s is not purchased.".formatted(name));
+    }
+
+    private static Resource[] resourcesOf(Course course, String[] names) throws ResourceNotFoundException {
+        Resource[] content = course.getContent();
+        Resource[] resources = new Resource[names.length];
+
+        for (int i = 0; i < names.length; i++) {
+            for (Resource resource : content) {
+                if (resource.getName().equals(names[i])) {
+                    resources[i] = resource;
+                    break;
+                }
+            }
+
+            if (resources[i] == null) {
+                throw new ResourceNotFoundException(
+                    "Resource with name %s could not be found in course %s".formatted(names[i], course.getName()));
+            }
+        }
+
+        return resources;
+    }
+
+    @Override
+    public void onTopUp(Account account, double amount) {
+        append(AccountEvent.Type.TOP_UP, account.getUsername(), NO_COURSE, NO_NAMES, amount, NO_COURSES, NO_STATE);
+    }
+
+    @Override
+    public void onPurchase(Account account, Course[] courses, double charged) {
+        append(AccountEvent.Type.PURCHASE, account.getUsername(), NO_COURSE, NO_NAMES, charged, courses, NO_STATE);
+    }
+
+    @Override
+    public void onResourcesCompleted(Account account, Course course, Resource[] resources) {
+        String[] names = new String[resources.length];
+        for (int i = 0; i < resources.length; i++) {
+            names[i] = resources[i].getName();
+        }
+
+        append(AccountEvent.Type.RESOURCES_COMPLETED, account.getUsername(), course.getName(), names, 0.0,
+            NO_COURSES, NO_STATE);
+    }
+
+    @Override
+    public void onCourseCompleted(Account account, Course course, double grade) {
+        append(AccountEvent.Type.COURSE_COMPLETED, account.getUsername(), course.getName(), NO_NAMES, grade,
+            NO_COURSES, NO_STATE);
+    }
+
+    @Override
+    public void onCoursesAdded(Course[] courses) {
+        append(AccountEvent.Type.COURSES_ADDED, NO_USER, NO_COURSE, NO_NAMES, 0.0, courses, NO_STATE);
+    }
+
+    @Override
+    public void onCourseRemoved(String name) {
+        append(AccountEvent.Type.COURSE_REMOVED, NO_USER, name, NO_NAMES, 0.0, NO_COURSES, NO_STATE);
+    }
+
+    @Override
+    public void onPriceUpdated(String name, double newPrice) {
+        append(AccountEvent.Type.PRICE_UPDATED, NO_USER, name, NO_NAMES, newPrice, NO_COURSES, NO_STATE);
+    }
+
+    /**
+     * Records the captured state of the account together with the courses it owns, so that replaying the event
+     * restores the account even if those courses are no longer in the catalog.
+     */
+    @Override
+    public void onAccountAdded(AccountBase account) {
+        synchronized (account) {
+            append(AccountEvent.Type.ACCOUNT_ADDED, account.getUsername(), NO_COURSE, NO_NAMES, 0.0,
+                account.getOwnedCourses(), account.captureState());
+        }
+    }
+
+    private void append(AccountEvent.Type type, String username, String courseName, String[] names, double amount,
+                        Course[] courses, byte[] state) {
+        byte[] body = encodeBody(type, username, courseName, names, amount, courses, state);
+
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed.");
+            }
+
+            if (failure != null) {
+                throw new UncheckedIOException("Journal is unavailable.", failure);
+            }
+
+            pending.add(new PendingEvent(++lastLsn, body));
+            notifyAll();
+        }
+    }
+
+    /**
+     * Returns the lsn of the last appended event, durable or not.
+     */
+    public synchronized long lastLsn() {
+        return lastLsn;
+    }
+
+    /**
+     * Blocks until every event up to the given lsn has been forced to disk.
+     *
+     * @throws IOException if writing the journal failed.
+     */
+    public synchronized void awaitDurable(long lsn) throws IOException, InterruptedException {
+        while (durableLsn < lsn && failure == null) {
+            if (closed && !writer.isAlive()) {
+                throw new IOException("Journal was closed before event %d was written.".formatted(lsn));
+            }
+            wait();
+        }
+
+        if (failure != null) {
+            throw new IOException("Journal is unavailable.", failure);
+        }
+    }
+
+    /**
+     * Blocks until every event appended so far has been forced to disk.
+     *
+     * @throws IOException if writing the journal failed.
+     */
+    public void flush() throws IOException, InterruptedException {
+        awaitDurable(lastLsn());
+    }
+
+    /**
+     * Drops every event up to and including the given lsn from the file, typically once a checkpoint covers them.
+     * The writer thread rewrites the remaining tail to a new file and swaps it in atomically; appending
+     * continues meanwhile and only durability waits for the swap.
+     *
+     * @throws IOException if rewriting the journal failed.
+     */
+    public synchronized void truncateThrough(long lsn) throws IOException, InterruptedException {
+        if (lsn > truncateRequest) {
+            truncateRequest = lsn;
+            notifyAll();
+        }
+
+        while (truncatedThrough < lsn && failure == null) {
+            if (closed && !writer.isAlive()) {
+                throw new IOException("Journal was closed before it was truncated.");
+            }
+            wait();
+        }
+
+        if (failure != null) {
+            throw new IOException("Journal is unavailable.", failure);
+        }
+    }
+
+    /**
+     * Writes the remaining events and closes the file. Events can no longer be appended afterwards.
+     *
+     * @throws IOException if writing the journal failed.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+
+        synchronized (this) {
+            if (failure != null) {
+                throw new IOException("Journal is unavailable.", failure);
+            }
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            List<PendingEvent> batch;
+            long truncateTarget;
+            synchronized (this) {
+                while (pending.isEmpty() && !closed && truncateRequest <= truncatedThrough) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        failure = new InterruptedIOException("Journal writer was interrupted.");
+                        notifyAll();
+                        return;
+                    }
+                }
+
+                if (pending.isEmpty() && truncateRequest <= truncatedThrough) {
+                    return;
+                }
+
+                batch = pending;
+                pending = new ArrayList<>();
+                truncateTarget = truncateRequest > truncatedThrough ? truncateRequest : 0;
+            }
+
+            try {
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                }
+                if (truncateTarget > 0) {
+                    compact(truncateTarget);
+                }
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                return;
+            }
+
+            synchronized (this) {
+                if (!batch.isEmpty()) {
+                    durableLsn = batch.get(batch.size() - 1).lsn();
+                }
+                if (truncateTarget > 0) {
+                    truncatedThrough = truncateTarget;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Rewrites the events after the given lsn to a new file, which header records the lsn as the one numbering
+     * continues from, and atomically replaces the journal with it.
+     * Runs on the writer thread, so no batch is written concurrently.
+     */
+    private void compact(long throughLsn) throws IOException {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+
+        try (FileChannel output = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING); JournalReader reader = new JournalReader(path)) {
+            List<PendingEvent> tail = new ArrayList<>();
+            AccountEvent event;
+            while ((event = reader.next()) != null) {
+                if (event.lsn() > throughLsn) {
+                    tail.add(new PendingEvent(event.lsn(), encodeBody(event.type(), event.username(),
+                        event.courseName(), event.names(), event.amount(), event.courses(), event.state())));
+                }
+            }
+
+            writeHeader(output, Math.max(baseLsn, throughLsn));
+            writeFrames(output, tail);
+        }
+
+        baseLsn = Math.max(baseLsn, throughLsn);
+
+        channel.close();
+        Files.move(compacted, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        channel = FileChannel.open(path, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+    }
+
+    private void writeBatch(List<PendingEvent> batch) throws IOException {
+        writeFrames(channel, batch);
+    }
+
+    private static void writeFrames(FileChannel target, List<PendingEvent> batch) throws IOException {
+        int size = 0;
+        for (PendingEvent event : batch) {
+            size += FRAME_HEADER_BYTES + Long.BYTES + event.body().length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        CRC32 crc = new CRC32();
+        for (PendingEvent event : batch) {
+            crc.reset();
+            ByteBuffer lsn = ByteBuffer.allocate(Long.BYTES).putLong(0, event.lsn());
+            crc.update(lsn);
+            crc.update(event.body());
+
+            buffer.putInt(Long.BYTES + event.body().length);
+            buffer.putInt((int) crc.getValue());
+            buffer.putLong(event.lsn());
+            buffer.put(event.body());
+        }
+
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+        target.force(false);
+    }
+
+    private static byte[] encodeBody(AccountEvent.Type type, String username, String courseName, String[] names,
+                                     double amount, Course[] courses, byte[] state) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeByte(type.ordinal());
+            output.writeUTF(username);
+            output.writeUTF(courseName);
+            output.writeInt(names.length);
+            for (String name : names) {
+                output.writeUTF(name);
+            }
+            output.writeDouble(amount);
+
+            output.writeInt(courses.length);
+            for (Course course : courses) {
+                byte[] record = CatalogFile.encode(course);
+                output.writeInt(record.length);
+                output.write(record);
+            }
+            output.writeInt(state.length);
+            output.write(state);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private record PendingEvent(long lsn, byte[] body) {
+    }
+
+    /**
+     * Reads intact events from the start of a journal file and stops at the end or at the first torn record.
+     * A file too short to hold the header, as left by a crash while it was created, reads as an empty journal.
+     */
+    private static final class JournalReader implements AutoCloseable {
+        private static final AccountEvent.Type[] TYPES = AccountEvent.Type.values();
+
+        private final DataInputStream input;
+        private final long baseLsn;
+        private long validLength;
+
+        JournalReader(Path path) throws IOException {
+            InputStream stream = Files.newInputStream(path);
+            this.input = new DataInputStream(new BufferedInputStream(stream, READ_BUFFER_BYTES));
+
+            long base = 0;
+            long length = 0;
+            try {
+                int magic = input.readInt();
+                int version = input.readInt();
+                base = input.readLong();
+                length = HEADER_BYTES;
+
+                if (magic != MAGIC || version != VERSION) {
+                    input.close();
+                    throw new IOException("File %s is not an account journal.".formatted(path));
+                }
+            } catch (EOFException e) {
+                base = 0;
+                length = 0;
+            }
+
+            this.baseLsn = base;
+            this.validLength = length;
+        }
+
+        AccountEvent next() throws IOException {
+            if (validLength < HEADER_BYTES) {
+                return null;
+            }
+
+            byte[] payload;
+            int expectedCrc;
+
+            try {
+                int length = input.readInt();
+                expectedCrc = input.readInt();
+                if (length < Long.BYTES || length > MAX_PAYLOAD_BYTES) {
+                    return null;
+                }
+
+                payload = new byte[length];
+                input.readFully(payload);
+            } catch (EOFException e) {
+                return null;
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != expectedCrc) {
+                return null;
+            }
+
+            validLength += FRAME_HEADER_BYTES + payload.length;
+            return decode(payload);
+        }
+
+        long validLength() {
+            return validLength;
+        }
+
+        long baseLsn() {
+            return baseLsn;
+        }
+
+        private static AccountEvent decode(byte[] payload) throws IOException {
+            DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+            long lsn = record.readLong();
+            AccountEvent.Type type = TYPES[record.readByte()];
+            String username = record.readUTF();
+            String courseName = record.readUTF();
+            String[] names = new String[record.readInt()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = record.readUTF();
+            }
+
+            double amount = record.readDouble();
+
+            Course[] courses = new Course[record.readInt()];
+            for (int i = 0; i < courses.length; i++) {
+                byte[] encoded = new byte[record.readInt()];
+                record.readFully(encoded);
+                courses[i] = CatalogFile.decode(encoded);
+            }
+
+            byte[] state = new byte[record.readInt()];
+            record.readFully(state);
+
+            return new AccountEvent(lsn, type, username, courseName, names, amount, courses, state);
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+}
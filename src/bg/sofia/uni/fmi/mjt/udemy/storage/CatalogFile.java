@@ -0,0 +1,170 @@
+package bg.sofia.uni.fmi.mjt.udemy.storage;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.Resource;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.CourseDuration;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.ResourceDuration;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes catalogs in the binary snapshot format read by {@link MappedCatalog}.
+ *
+ * <pre>
+ * header:  int magic, int version, int course count, int reserved
+ * offsets: long[course count], the absolute position of every course record
+ * record:  double price, int total minutes, int resource count, byte category ordinal or -1 for none,
+ *          name, description, and per resource: byte minutes, name
+ * </pre>
+ * Strings are stored as an int byte length followed by UTF-8 bytes. A record never crosses a
+ * {@link #SEGMENT_BYTES} boundary, so the reader can map the file in independent segments.
+ */
+public final class CatalogFile {
+    static final int MAGIC = 0x55444D43;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final long SEGMENT_BYTES = 1L << 30;
+
+    static final int PRICE_OFFSET = 0;
+    static final int TOTAL_MINUTES_OFFSET = 8;
+    static final int RESOURCE_COUNT_OFFSET = 12;
+    static final int CATEGORY_OFFSET = 16;
+    static final int NAME_OFFSET = 17;
+    static final byte NO_CATEGORY = -1;
+
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final Category[] CATEGORIES = Category.values();
+
+    private CatalogFile() {
+    }
+
+    /**
+     * Writes the courses to the given file, replacing it if it exists.
+     *
+     * @throws IllegalArgumentException if courses is null or contains null.
+     * @throws IOException              if the file cannot be written.
+     */
+    public static void write(Path path, Course[] courses) throws IOException {
+        if (courses == null) {
+            throw new IllegalArgumentException("Courses can't be null.");
+        }
+
+        long[] offsets = new long[courses.length];
+        long position = HEADER_BYTES + (long) Long.BYTES * courses.length;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream output =
+                new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_BYTES));
+
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(courses.length);
+            output.writeInt(0);
+            output.write(new byte[Long.BYTES * courses.length]);
+
+            for (int id = 0; id < courses.length; id++) {
+                if (courses[id] == null) {
+                    throw new IllegalArgumentException("Courses can't contain null.");
+                }
+
+                byte[] record = encode(courses[id]);
+                if (record.length > SEGMENT_BYTES) {
+                    throw new IllegalArgumentException(
+                        "Course %s is too large to be stored.".formatted(courses[id].getName()));
+                }
+
+                long segmentEnd = (position / SEGMENT_BYTES + 1) * SEGMENT_BYTES;
+                if (position + record.length > segmentEnd) {
+                    output.write(new byte[(int) (segmentEnd - position)]);
+                    position = segmentEnd;
+                }
+
+                offsets[id] = position;
+                output.write(record);
+                position += record.length;
+            }
+
+            output.flush();
+
+            ByteBuffer table = ByteBuffer.allocate(Long.BYTES * courses.length);
+            table.asLongBuffer().put(offsets);
+            long tablePosition = HEADER_BYTES;
+            while (table.hasRemaining()) {
+                tablePosition += channel.write(table, tablePosition);
+            }
+        }
+    }
+
+    /**
+     * Encodes the course as a record of the format.
+     */
+    static byte[] encode(Course course) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream record = new DataOutputStream(bytes);
+
+        CourseDuration totalTime = course.getTotalTime();
+        Resource[] content = course.getContent();
+
+        record.writeDouble(course.getPrice());
+        record.writeInt(totalTime.toMinutes());
+        record.writeInt(content.length);
+        record.writeByte(course.getCategory() == null ? NO_CATEGORY : course.getCategory().ordinal());
+        writeString(record, course.getName());
+        writeString(record, course.getDescription());
+
+        for (Resource resource : content) {
+            record.writeByte(resource.getDuration().minutes());
+            writeString(record, resource.getName());
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a record written by {@link #encode(Course)} into a course held on the heap.
+     *
+     * @throws IOException if the record is malformed.
+     */
+    static Course decode(byte[] record) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(record));
+
+        double price = input.readDouble();
+        input.readInt();
+        Resource[] content = new Resource[input.readInt()];
+        byte category = input.readByte();
+        String name = readString(input);
+        String description = readString(input);
+
+        for (int i = 0; i < content.length; i++) {
+            int minutes = input.readByte();
+            content[i] = new Resource(readString(input), new ResourceDuration(minutes));
+        }
+
+        return new Course(name, description, price, content, category == NO_CATEGORY ? null : CATEGORIES[category]);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        byte[] encoded = new byte[input.readInt()];
+        input.readFully(encoded);
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(encoded.length);
+        output.write(encoded);
+    }
+}
@@ -0,0 +1,312 @@
+package bg.sofia.uni.fmi.mjt.udemy.storage;
+
+import bg.sofia.uni.fmi.mjt.udemy.Udemy;
+import bg.sofia.uni.fmi.mjt.udemy.account.AccountBase;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Periodically writes a checkpoint of the platform (the catalog and the state of every account) and truncates
+ * the {@link AccountJournal} up to it, so that recovery replays only the journal tail. The journal must be
+ * attached to the platform as well as to its accounts, so that catalog changes and added accounts are replayed.
+ *
+ * <p>Writers are never stopped: the catalog version is captured together with the journal's last lsn while no
+ * platform change can be published, and every account of that version is then captured under its own lock
+ * together with the journal's last lsn at that moment. Every event up to a captured lsn is reflected in what was
+ * captured with it, and every later one is still in the journal, so recovery re-applies exactly the platform
+ * changes newer than the catalog and the account events newer than the account's captured lsn.
+ *
+ * <p>A checkpoint is a catalog file in the {@link CatalogFile} format, a file in the same format with the owned
+ * courses which are not in that catalog, an accounts file and a small pointer file which is replaced atomically
+ * once the others are on disk, so a crash mid-checkpoint leaves the previous one usable.
+ */
+public final class Checkpointer implements AutoCloseable {
+    private static final String POINTER_FILE = "CHECKPOINT";
+    private static final int ACCOUNTS_MAGIC = 0x55444D41;
+    private static final int ACCOUNTS_VERSION = 1;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final Path directory;
+    private final Udemy platform;
+    private final AccountJournal journal;
+    private final ScheduledExecutorService scheduler;
+    private volatile Exception lastFailure;
+
+    public Checkpointer(Path directory, Udemy platform, AccountJournal journal) {
+        this.directory = directory;
+        this.platform = platform;
+        this.journal = journal;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpointer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.lastFailure = null;
+    }
+
+    /**
+     * Starts taking a checkpoint in the background every interval.
+     */
+    public void start(Duration interval) {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+                lastFailure = null;
+            } catch (IOException | RuntimeException e) {
+                lastFailure = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the failure of the last background checkpoint, or null if it succeeded.
+     */
+    public Exception getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Takes a checkpoint now and truncates the journal up to it.
+     *
+     * @return the journal lsn covered by the checkpoint.
+     * @throws IOException if the checkpoint could not be written.
+     */
+    public synchronized long checkpoint() throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+
+        Pointer previous = readPointer(directory);
+        long generation = previous == null ? 1 : previous.generation() + 1;
+        CatalogCapture capture = platform.readConsistently(
+            snapshot -> new CatalogCapture(snapshot.getAllCourses(), snapshot.getAllAccounts(), journal.lastLsn()));
+
+        Path catalogFile = directory.resolve(catalogFileName(generation));
+        CatalogFile.write(catalogFile, capture.courses());
+        force(catalogFile);
+        AccountCapture[] accounts = captureAccounts(capture.accounts());
+        Path ownedFile = directory.resolve(ownedFileName(generation));
+        CatalogFile.write(ownedFile, ownedOutsideCatalog(accounts, capture.courses()));
+        force(ownedFile);
+        writeAccounts(directory.resolve(accountsFileName(generation)), accounts);
+        writePointer(new Pointer(generation, capture.lsn()));
+
+        journal.truncateThrough(capture.lsn());
+
+        if (previous != null) {
+            Files.deleteIfExists(directory.resolve(catalogFileName(previous.generation())));
+            Files.deleteIfExists(directory.resolve(ownedFileName(previous.generation())));
+            Files.deleteIfExists(directory.resolve(accountsFileName(previous.generation())));
+        }
+
+        return capture.lsn();
+    }
+
+    private AccountCapture[] captureAccounts(AccountBase[] accounts) {
+        AccountCapture[] captures = new AccountCapture[accounts.length];
+
+        IntStream.range(0, accounts.length).parallel().forEach(i -> {
+            synchronized (accounts[i]) {
+                captures[i] = new AccountCapture(journal.lastLsn(), accounts[i].captureState(),
+                    accounts[i].getOwnedCourses());
+            }
+        });
+
+        return captures;
+    }
+
+    /**
+     * Returns the courses owned by the accounts which are not in the catalog, such as removed courses,
+     * once per name.
+     */
+    private static Course[] ownedOutsideCatalog(AccountCapture[] accounts, Course[] catalog) {
+        Set<String> names = new HashSet<>();
+        for (Course course : catalog) {
+            names.add(course.getName());
+        }
+
+        List<Course> owned = new ArrayList<>();
+        for (AccountCapture account : accounts) {
+            for (Course course : account.owned()) {
+                if (names.add(course.getName())) {
+                    owned.add(course);
+                }
+            }
+        }
+
+        return owned.toArray(new Course[0]);
+    }
+
+    private void writeAccounts(Path file, AccountCapture[] accounts) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream output =
+                new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_BYTES));
+
+            output.writeInt(ACCOUNTS_MAGIC);
+            output.writeInt(ACCOUNTS_VERSION);
+            output.writeInt(accounts.length);
+            for (AccountCapture account : accounts) {
+                output.writeLong(account.lsn());
+                output.writeInt(account.state().length);
+                output.write(account.state());
+            }
+
+            output.flush();
+            channel.force(true);
+        }
+    }
+
+    private void writePointer(Pointer pointer) throws IOException {
+        Path temporary = directory.resolve(POINTER_FILE + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream output = new DataOutputStream(Channels.newOutputStream(channel));
+            output.writeLong(pointer.generation());
+            output.writeLong(pointer.lsn());
+            output.flush();
+            channel.force(true);
+        }
+
+        Files.move(temporary, directory.resolve(POINTER_FILE), StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Rebuilds the platform from the last checkpoint in the directory and the journal tail after it.
+     * Account states are decoded in parallel and the tail is re-applied with
+     * {@link AccountJournal#replay(Path, Udemy, long, Map)}.
+     *
+     * @throws IOException if there is no checkpoint or the checkpoint or journal cannot be read.
+     */
+    public static Udemy recover(Path directory, Path journalPath) throws IOException {
+        Pointer pointer = readPointer(directory);
+        if (pointer == null) {
+            throw new IOException("No checkpoint in %s.".formatted(directory));
+        }
+
+        Course[] courses = MappedCatalog.open(directory.resolve(catalogFileName(pointer.generation()))).courses();
+        Map<String, Course> coursesByName = new HashMap<>();
+        for (Course course : courses) {
+            coursesByName.putIfAbsent(course.getName(), course);
+        }
+        for (Course course : MappedCatalog.open(directory.resolve(ownedFileName(pointer.generation()))).courses()) {
+            coursesByName.putIfAbsent(course.getName(), course);
+        }
+
+        AccountBase[] accounts;
+        Map<String, Long> capturedLsns = new HashMap<>();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+            Files.newInputStream(directory.resolve(accountsFileName(pointer.generation()))), BUFFER_BYTES))) {
+            if (input.readInt() != ACCOUNTS_MAGIC || input.readInt() != ACCOUNTS_VERSION) {
+                throw new IOException("Malformed accounts checkpoint in %s.".formatted(directory));
+            }
+
+            long[] lsns = new long[input.readInt()];
+            byte[][] states = new byte[lsns.length][];
+            for (int i = 0; i < lsns.length; i++) {
+                lsns[i] = input.readLong();
+                states[i] = new byte[input.readInt()];
+                input.readFully(states[i]);
+            }
+
+            accounts = new AccountBase[lsns.length];
+            try {
+                IntStream.range(0, accounts.length).parallel().forEach(i -> {
+                    try {
+                        accounts[i] = AccountBase.restoreState(states[i], coursesByName::get);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            for (int i = 0; i < accounts.length; i++) {
+                capturedLsns.put(accounts[i].getUsername(), lsns[i]);
+            }
+        }
+
+        Udemy platform = new Udemy(accounts, courses);
+        AccountJournal.replay(journalPath, platform, pointer.lsn(), capturedLsns);
+
+        return platform;
+    }
+
+    private static Pointer readPointer(Path directory) throws IOException {
+        Path file = directory.resolve(POINTER_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try (DataInputStream input = new DataInputStream(Files.newInputStream(file))) {
+            return new Pointer(input.readLong(), input.readLong());
+        }
+    }
+
+    private static void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    private static String catalogFileName(long generation) {
+        return "catalog-%d.bin".formatted(generation);
+    }
+
+    private static String ownedFileName(long generation) {
+        return "owned-%d.bin".formatted(generation);
+    }
+
+    private static String accountsFileName(long generation) {
+        return "accounts-%d.bin".formatted(generation);
+    }
+
+    /**
+     * Stops taking background checkpoints, waiting for a running one to finish.
+     * If the calling thread is interrupted while waiting, it stops waiting and keeps its interrupt status.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Pointer(long generation, long lsn) {
+    }
+
+    private record CatalogCapture(Course[] courses, AccountBase[] accounts, long lsn) {
+    }
+
+    private record AccountCapture(long lsn, byte[] state, Course[] owned) {
+    }
+}
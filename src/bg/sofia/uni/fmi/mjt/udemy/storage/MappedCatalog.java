@@ -0,0 +1,124 @@
+package bg.sofia.uni.fmi.mjt.udemy.storage;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A catalog snapshot written by {@link CatalogFile}, memory-mapped read-only.
+ * Opening only maps the file and checks its header; the returned courses are views which read their fields
+ * from the mapped pages on every access, so the catalog data stays off-heap.
+ */
+public final class MappedCatalog {
+    private final ByteBuffer[] segments;
+    private final int size;
+
+    private MappedCatalog(ByteBuffer[] segments, int size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * Maps the given snapshot file.
+     *
+     * @throws IOException if the file cannot be read or is not a catalog snapshot.
+     */
+    public static MappedCatalog open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            ByteBuffer[] segments = new ByteBuffer[(int) ((fileSize + CatalogFile.SEGMENT_BYTES - 1)
+                / CatalogFile.SEGMENT_BYTES)];
+
+            for (int i = 0; i < segments.length; i++) {
+                long start = i * CatalogFile.SEGMENT_BYTES;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    Math.min(CatalogFile.SEGMENT_BYTES, fileSize - start));
+            }
+
+            if (fileSize < CatalogFile.HEADER_BYTES || segments[0].getInt(0) != CatalogFile.MAGIC) {
+                throw new IOException("File %s is not a catalog snapshot.".formatted(path));
+            }
+
+            if (segments[0].getInt(Integer.BYTES) != CatalogFile.VERSION) {
+                throw new IOException("Unsupported catalog snapshot version in %s.".formatted(path));
+            }
+
+            return new MappedCatalog(segments, segments[0].getInt(2 * Integer.BYTES));
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a view of the course with the given position in the snapshot.
+     *
+     * @throws IndexOutOfBoundsException if id is not in the range [0, size).
+     */
+    public Course get(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No course with id %d in a catalog of %d.".formatted(id, size));
+        }
+
+        long offset = readLong(CatalogFile.HEADER_BYTES + (long) Long.BYTES * id);
+        return new MappedCourse(this, offset, readInt(offset + CatalogFile.RESOURCE_COUNT_OFFSET));
+    }
+
+    /**
+     * Returns views of all courses, in the order they were written.
+     */
+    public Course[] courses() {
+        Course[] courses = new Course[size];
+        for (int id = 0; id < size; id++) {
+            courses[id] = get(id);
+        }
+
+        return courses;
+    }
+
+    private ByteBuffer segment(long position) {
+        return segments[(int) (position / CatalogFile.SEGMENT_BYTES)];
+    }
+
+    private static int local(long position) {
+        return (int) (position % CatalogFile.SEGMENT_BYTES);
+    }
+
+    long readLong(long position) {
+        return segment(position).getLong(local(position));
+    }
+
+    int readInt(long position) {
+        return segment(position).getInt(local(position));
+    }
+
+    double readDouble(long position) {
+        return segment(position).getDouble(local(position));
+    }
+
+    byte readByte(long position) {
+        return segment(position).get(local(position));
+    }
+
+    /**
+     * Reads a length-prefixed UTF-8 string.
+     */
+    String readString(long position) {
+        byte[] bytes = new byte[readInt(position)];
+        segment(position).get(local(position) + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the position right after the length-prefixed string stored at the given position.
+     */
+    long skipString(long position) {
+        return position + Integer.BYTES + readInt(position);
+    }
+}
@@ -0,0 +1,71 @@
+package bg.sofia.uni.fmi.mjt.udemy.storage;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.Resource;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.CourseDuration;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.ResourceDuration;
+
+/**
+ * A course which catalog data is read on demand from a {@link MappedCatalog} record.
+ * Only the record position and the completion state of the {@link Course} base live on the heap.
+ */
+class MappedCourse extends Course {
+    private static final int MINUTES_PER_HOUR = 60;
+    private static final Category[] CATEGORIES = Category.values();
+
+    private final MappedCatalog catalog;
+    private final long offset;
+
+    MappedCourse(MappedCatalog catalog, long offset, int resourceCount) {
+        super(resourceCount);
+        this.catalog = catalog;
+        this.offset = offset;
+    }
+
+    @Override
+    public String getName() {
+        return catalog.readString(offset + CatalogFile.NAME_OFFSET);
+    }
+
+    @Override
+    public String getDescription() {
+        return catalog.readString(descriptionPosition());
+    }
+
+    @Override
+    public double getPrice() {
+        return catalog.readDouble(offset + CatalogFile.PRICE_OFFSET);
+    }
+
+    @Override
+    public Category getCategory() {
+        byte ordinal = catalog.readByte(offset + CatalogFile.CATEGORY_OFFSET);
+        return ordinal == CatalogFile.NO_CATEGORY ? null : CATEGORIES[ordinal];
+    }
+
+    @Override
+    public CourseDuration getTotalTime() {
+        int totalMinutes = catalog.readInt(offset + CatalogFile.TOTAL_MINUTES_OFFSET);
+        return new CourseDuration(totalMinutes / MINUTES_PER_HOUR, totalMinutes % MINUTES_PER_HOUR);
+    }
+
+    @Override
+    public Resource[] getContent() {
+        Resource[] content = new Resource[getResourceCount()];
+
+        long position = catalog.skipString(descriptionPosition());
+        for (int i = 0; i < content.length; i++) {
+            int minutes = catalog.readByte(position);
+            position += Byte.BYTES;
+            content[i] = new Resource(catalog.readString(position), new ResourceDuration(minutes));
+            position = catalog.skipString(position);
+        }
+
+        return content;
+    }
+
+    private long descriptionPosition() {
+        return catalog.skipString(offset + CatalogFile.NAME_OFFSET);
+    }
+}
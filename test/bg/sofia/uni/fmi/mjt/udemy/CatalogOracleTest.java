@@ -0,0 +1,241 @@
+package bg.sofia.uni.fmi.mjt.udemy;
+
+import bg.sofia.uni.fmi.mjt.udemy.account.AccountBase;
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.Resource;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.CourseDuration;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.ResourceDuration;
+import bg.sofia.uni.fmi.mjt.udemy.exception.CourseNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks the indexed lookups of the catalog against a plain list of its courses, filtered and sorted by brute force.
+ */
+class CatalogOracleTest {
+    private static final String[] WORDS = {"java", "go", "rust", "art", "music", "design"};
+    private static final String[] KEYWORDS = {"a", "us", "music", "sig", "rust", "zzz"};
+
+    @Test
+    void lookupsMatchTheCatalogAfterEveryChange() throws CourseNotFoundException {
+        Random random = new Random(1);
+        List<Course> model = new ArrayList<>();
+        Course[] initial = new Course[300];
+        for (int i = 0; i < initial.length; i++) {
+            initial[i] = course(random, i);
+        }
+        Udemy udemy = new Udemy(new AccountBase[0], initial);
+        model.addAll(Arrays.asList(initial));
+
+        List<CatalogSnapshot> snapshots = new ArrayList<>();
+        List<List<Course>> snapshotModels = new ArrayList<>();
+        for (int step = 0; step < 2000; step++) {
+            change(udemy, model, random, step);
+            if (step % 50 == 0) {
+                assertMatches(udemy, model);
+            }
+            if (step % 400 == 0) {
+                snapshots.add(udemy.snapshot());
+                snapshotModels.add(new ArrayList<>(model));
+            }
+        }
+
+        assertMatches(udemy, model);
+        // Older versions must not see the changes made after them.
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertMatches(snapshots.get(i), snapshotModels.get(i));
+        }
+    }
+
+    @Test
+    void rangesMatchABruteForceFilter() throws CourseNotFoundException {
+        Random random = new Random(7);
+        Course[] courses = new Course[3000];
+        for (int i = 0; i < courses.length; i++) {
+            courses[i] = new Course("N" + i, "d", random.nextInt(100) / 2.0, content(random, 6),
+                Category.values()[random.nextInt(3)]);
+        }
+        // Equal prices for <, so they are ordered by id.
+        courses[0] = new Course("N0", "d", 0.0, content(random, 6), Category.values()[0]);
+        courses[1] = new Course("N1", "d", -0.0, content(random, 6), Category.values()[0]);
+        Udemy udemy = new Udemy(new AccountBase[0], courses);
+        courses[5] = udemy.updatePrice("N5", 3.5);
+        udemy.removeCourse("N6");
+        courses[6] = null;
+        List<Course> model = Arrays.asList(courses);
+
+        for (int t = 0; t < 200; t++) {
+            Category category = Category.values()[t == 0 ? 0 : random.nextInt(4)];
+            double minPrice = t == 0 ? -0.0 : random.nextInt(100) / 2.0;
+            double maxPrice = t == 0 ? 0.0 : minPrice + random.nextInt(40) / 2.0;
+            List<Course> byPrice = live(model).stream()
+                .filter(course -> course.getCategory() == category)
+                .filter(course -> course.getPrice() >= minPrice && course.getPrice() <= maxPrice)
+                .sorted(Comparator.comparing(Course::getPrice, CatalogOracleTest::comparePrices)
+                    .thenComparingInt(model::indexOf))
+                .toList();
+            assertArrayEquals(byPrice.toArray(), udemy.getCoursesByPriceRange(category, minPrice, maxPrice));
+
+            int minMinutes = random.nextInt(200);
+            int maxMinutes = minMinutes + random.nextInt(120);
+            List<Course> byDuration = live(model).stream()
+                .filter(course -> course.getCategory() == category)
+                .filter(course -> course.getTotalTime().toMinutes() >= minMinutes)
+                .filter(course -> course.getTotalTime().toMinutes() <= maxMinutes)
+                .sorted(Comparator.comparingInt((Course course) -> course.getTotalTime().toMinutes())
+                    .thenComparingInt(model::indexOf))
+                .toList();
+            assertArrayEquals(byDuration.toArray(), udemy.getCoursesByDurationRange(category,
+                duration(minMinutes), duration(maxMinutes)));
+        }
+    }
+
+    @Test
+    void addCoursesRejectsTheWholeBatchOnATakenName() {
+        Random random = new Random(2);
+        Course first = course(random, 1);
+        Udemy udemy = new Udemy(new AccountBase[0], new Course[] {first});
+        Course fresh = course(random, 2);
+
+        assertThrows(IllegalArgumentException.class, () -> udemy.addCourses(new Course[] {fresh, first}));
+        assertThrows(IllegalArgumentException.class, () -> udemy.addCourses(new Course[] {fresh, fresh}));
+        assertThrows(IllegalArgumentException.class, () -> udemy.addCourses(new Course[] {fresh, null}));
+
+        assertArrayEquals(new Course[] {first}, udemy.getAllCourses());
+    }
+
+    /**
+     * Applies a random change to both the platform and the model, where a course keeps its position when repriced
+     * and leaves a null behind when removed.
+     */
+    private static void change(Udemy udemy, List<Course> model, Random random, int step)
+        throws CourseNotFoundException {
+        int operation = random.nextInt(4);
+        if (operation == 0) {
+            Course course = course(random, 1000 + step);
+            if (firstWithName(model, course.getName()) < 0) {
+                udemy.addCourse(course);
+                model.add(course);
+            }
+        } else if (operation == 1) {
+            List<Course> batch = new ArrayList<>();
+            for (int i = random.nextInt(5); i > 0; i--) {
+                Course course = course(random, 20_000 + step * 5 + i);
+                if (firstWithName(model, course.getName()) < 0 && firstWithName(batch, course.getName()) < 0) {
+                    batch.add(course);
+                }
+            }
+            udemy.addCourses(batch.toArray(new Course[0]));
+            model.addAll(batch);
+        } else {
+            List<Course> live = live(model);
+            if (live.isEmpty()) {
+                return;
+            }
+
+            String name = live.get(random.nextInt(live.size())).getName();
+            int id = firstWithName(model, name);
+            if (operation == 2) {
+                udemy.removeCourse(name);
+                model.set(id, null);
+            } else {
+                model.set(id, udemy.updatePrice(name, random.nextInt(20)));
+            }
+        }
+    }
+
+    private static void assertMatches(LearningPlatform platform, List<Course> model)
+        throws CourseNotFoundException {
+        List<Course> live = live(model);
+        Course[] all = platform instanceof Udemy udemy ? udemy.getAllCourses()
+            : ((CatalogSnapshot) platform).getAllCourses();
+        assertArrayEquals(live.toArray(), all);
+
+        for (Category category : Category.values()) {
+            List<Course> inCategory = live.stream().filter(course -> course.getCategory() == category).toList();
+            assertArrayEquals(inCategory.toArray(), platform.getAllCoursesByCategory(category));
+
+            Course cheapest = null;
+            for (Course course : inCategory) {
+                if (cheapest == null || course.getPrice() < cheapest.getPrice()) {
+                    cheapest = course;
+                }
+            }
+            assertSame(cheapest, platform.getCheapestByCategory(category));
+        }
+
+        Course longest = null;
+        for (Course course : live) {
+            if (course.getTotalTime().isLongerThan(longest == null ? duration(0) : longest.getTotalTime())) {
+                longest = course;
+            }
+        }
+        assertSame(longest, platform.getLongestCourse());
+
+        for (String keyword : KEYWORDS) {
+            Object[] expected = live.stream()
+                .filter(course -> course.getName().contains(keyword) || course.getDescription().contains(keyword))
+                .toArray();
+            Course[] found = platform.findByKeyword(keyword);
+            assertArrayEquals(expected, found == null ? new Course[0] : found);
+        }
+
+        for (Course course : live) {
+            assertSame(model.get(firstWithName(model, course.getName())), platform.findByName(course.getName()));
+        }
+    }
+
+    /**
+     * Compares prices as {@code <} does, so -0.0 and 0.0 are equal.
+     */
+    private static int comparePrices(double left, double right) {
+        return left < right ? -1 : left > right ? 1 : 0;
+    }
+
+    private static List<Course> live(List<Course> model) {
+        return model.stream().filter(Objects::nonNull).toList();
+    }
+
+    private static int firstWithName(List<Course> model, String name) {
+        for (int i = 0; i < model.size(); i++) {
+            if (model.get(i) != null && model.get(i).getName().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static CourseDuration duration(int minutes) {
+        return new CourseDuration(minutes / 60, minutes % 60);
+    }
+
+    private static Resource[] content(Random random, int maxResources) {
+        Resource[] content = new Resource[random.nextInt(maxResources)];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = new Resource("r" + i, new ResourceDuration(random.nextInt(60)));
+        }
+        return content;
+    }
+
+    /**
+     * Creates a course; every fifth one shares its name with another. The initial catalog keeps such courses,
+     * while later changes only add names which are not taken.
+     */
+    private static Course course(Random random, int number) {
+        String name = "C" + (random.nextInt(5) == 0 ? number / 2 : number);
+        String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+        return new Course(name, description, random.nextInt(20), content(random, 4),
+            Category.values()[random.nextInt(Category.values().length)]);
+    }
+}
@@ -0,0 +1,236 @@
+package bg.sofia.uni.fmi.mjt.udemy;
+
+import bg.sofia.uni.fmi.mjt.udemy.account.AccountBase;
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.Resource;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.ResourceDuration;
+import bg.sofia.uni.fmi.mjt.udemy.exception.CourseNotFoundException;
+import bg.sofia.uni.fmi.mjt.udemy.query.CourseOrder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks name completion and the typo-tolerant lookups against brute force over a catalog which keeps changing.
+ * Names are short words over a tiny alphabet, so that many of them share prefixes and are close to each other.
+ */
+class NameLookupOracleTest {
+    private int uniqueNames;
+
+    @Test
+    void completionsMatchABruteForceSortOfTheMatchingNames() throws CourseNotFoundException {
+        Random random = new Random(7);
+        List<Course> model = new ArrayList<>();
+        Udemy udemy = randomCatalog(random, model);
+
+        List<CatalogSnapshot> snapshots = new ArrayList<>();
+        List<List<Course>> snapshotModels = new ArrayList<>();
+        for (int step = 0; step < 1500; step++) {
+            change(udemy, model, random);
+            for (int q = 0; q < 3; q++) {
+                assertCompletions(udemy, model, random);
+            }
+            if (step % 300 == 0) {
+                snapshots.add(udemy.snapshot());
+                snapshotModels.add(new ArrayList<>(model));
+            }
+        }
+
+        for (int i = 0; i < snapshots.size(); i++) {
+            for (int q = 0; q < 30; q++) {
+                assertCompletions(snapshots.get(i), snapshotModels.get(i), random);
+            }
+        }
+    }
+
+    @Test
+    void similarNamesAndKeywordsMatchABruteForceDistance() throws CourseNotFoundException {
+        Random random = new Random(11);
+        List<Course> model = new ArrayList<>();
+        Udemy udemy = randomCatalog(random, model);
+
+        for (int step = 0; step < 500; step++) {
+            change(udemy, model, random);
+            for (int q = 0; q < 3; q++) {
+                assertSimilarNames(udemy, model, random);
+                assertKeywordSuggestions(udemy, model, random);
+            }
+        }
+    }
+
+    @Test
+    void lookupsRejectInvalidArguments() {
+        Udemy udemy = new Udemy(new AccountBase[0], new Course[0]);
+
+        assertThrows(IllegalArgumentException.class, () -> udemy.completeName("", CourseOrder.NAME, 3));
+        assertThrows(IllegalArgumentException.class, () -> udemy.completeName("a", CourseOrder.NAME, 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> udemy.findBySimilarName("a", Udemy.MAX_EDIT_DISTANCE + 1, 3));
+        assertThrows(IllegalArgumentException.class, () -> udemy.suggestKeywords("a b", 1, 3));
+        assertThrows(IllegalArgumentException.class, () -> udemy.suggestKeywords("ab", 1, 0));
+    }
+
+    private void assertCompletions(LearningPlatform platform, List<Course> model, Random random) {
+        String prefix = word(random, 3, "abC#");
+        CourseOrder order = CourseOrder.values()[random.nextInt(CourseOrder.values().length)];
+        int limit = 1 + random.nextInt(random.nextBoolean() ? 5 : 300);
+
+        Course[] expected = IntStream.range(0, model.size())
+            .filter(id -> model.get(id) != null && model.get(id).getName().startsWith(prefix))
+            .boxed()
+            .sorted((left, right) -> order.compare(left, model.get(left), right, model.get(right)))
+            .limit(limit)
+            .map(model::get)
+            .toArray(Course[]::new);
+
+        assertArrayEquals(expected, platform.completeName(prefix, order, limit), prefix + " " + order + " " + limit);
+    }
+
+    private void assertSimilarNames(LearningPlatform platform, List<Course> model, Random random) {
+        int maxDistance = random.nextInt(Udemy.MAX_EDIT_DISTANCE + 1);
+        int limit = 1 + random.nextInt(random.nextBoolean() ? 5 : 300);
+        String name = random.nextBoolean() ? word(random, 6, "abC#0")
+            : word(random, 4, "abC") + "#" + random.nextInt(uniqueNames + 1);
+
+        Course[] expected = IntStream.range(0, model.size())
+            .filter(id -> model.get(id) != null && distance(model.get(id).getName(), name) <= maxDistance)
+            .boxed()
+            .sorted(Comparator.comparingInt((Integer id) -> distance(model.get(id).getName(), name))
+                .thenComparing(id -> model.get(id).getName())
+                .thenComparingInt(id -> id))
+            .limit(limit)
+            .map(model::get)
+            .toArray(Course[]::new);
+
+        assertArrayEquals(expected, platform.findBySimilarName(name, maxDistance, limit),
+            name + " " + maxDistance + " " + limit);
+    }
+
+    /**
+     * Suggestions are the terms of names and descriptions within the distance, the closest first, then the ones
+     * used by more courses, then in alphabetical order.
+     */
+    private void assertKeywordSuggestions(LearningPlatform platform, List<Course> model, Random random) {
+        int maxDistance = random.nextInt(Udemy.MAX_EDIT_DISTANCE + 1);
+        int limit = 1 + random.nextInt(random.nextBoolean() ? 5 : 300);
+        String keyword = word(random, 5, "abcB");
+
+        Map<String, Integer> courseCounts = new TreeMap<>();
+        for (Course course : model) {
+            if (course != null) {
+                Set<String> terms = new HashSet<>();
+                for (String term : (course.getName() + " " + course.getDescription()).split("[^a-zA-Z]+")) {
+                    if (!term.isEmpty()) {
+                        terms.add(term);
+                    }
+                }
+                terms.forEach(term -> courseCounts.merge(term, 1, Integer::sum));
+            }
+        }
+
+        String[] expected = courseCounts.keySet().stream()
+            .filter(term -> distance(term, keyword) <= maxDistance)
+            .sorted(Comparator.comparingInt((String term) -> distance(term, keyword))
+                .thenComparing(term -> -courseCounts.get(term))
+                .thenComparing(Comparator.naturalOrder()))
+            .limit(limit)
+            .toArray(String[]::new);
+
+        assertArrayEquals(expected, platform.suggestKeywords(keyword, maxDistance, limit),
+            keyword + " " + maxDistance + " " + limit);
+    }
+
+    private Udemy randomCatalog(Random random, List<Course> model) {
+        Course[] initial = new Course[200];
+        for (int i = 0; i < initial.length; i++) {
+            initial[i] = course(random);
+        }
+        model.addAll(Arrays.asList(initial));
+        return new Udemy(new AccountBase[0], initial);
+    }
+
+    /**
+     * Adds a batch of courses, removes one or reprices one, on both the platform and the model.
+     */
+    private void change(Udemy udemy, List<Course> model, Random random) throws CourseNotFoundException {
+        int operation = random.nextInt(4);
+        if (operation == 0) {
+            // A batch may only add names which are not taken, neither by the catalog nor earlier in the batch.
+            List<Course> batch = new ArrayList<>();
+            for (int i = random.nextInt(6); i > 0; i--) {
+                Course course = course(random);
+                if (Stream.concat(model.stream(), batch.stream())
+                    .noneMatch(taken -> taken != null && taken.getName().equals(course.getName()))) {
+                    batch.add(course);
+                }
+            }
+            udemy.addCourses(batch.toArray(new Course[0]));
+            model.addAll(batch);
+            return;
+        }
+
+        List<Integer> live = IntStream.range(0, model.size()).filter(id -> model.get(id) != null).boxed().toList();
+        if (live.isEmpty()) {
+            return;
+        }
+
+        String name = model.get(live.get(random.nextInt(live.size()))).getName();
+        int first = live.stream().filter(id -> model.get(id).getName().equals(name)).findFirst().orElseThrow();
+        if (operation == 1) {
+            udemy.removeCourse(name);
+            model.set(first, null);
+        } else {
+            model.set(first, udemy.updatePrice(name, random.nextInt(10)));
+        }
+    }
+
+    /**
+     * Creates a course; a third of the names are bare words, which repeat, and the rest are made unique.
+     */
+    private Course course(Random random) {
+        String name = random.nextInt(3) == 0 ? word(random, 5, "abC") : word(random, 4, "abC") + "#" + uniqueNames++;
+        String description = word(random, 4, "abcB") + " " + word(random, 4, "abcB") + "1" + word(random, 3, "ab");
+        Resource[] content = {new Resource("lecture", new ResourceDuration(random.nextInt(60)))};
+        return new Course(name, description, random.nextInt(10), content, Category.values()[random.nextInt(8)]);
+    }
+
+    private static String word(Random random, int maxLength, String alphabet) {
+        StringBuilder word = new StringBuilder();
+        int length = 1 + random.nextInt(maxLength);
+        for (int i = 0; i < length; i++) {
+            word.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return word.toString();
+    }
+
+    private static int distance(String left, String right) {
+        int[][] distances = new int[left.length() + 1][right.length() + 1];
+        for (int i = 0; i <= left.length(); i++) {
+            distances[i][0] = i;
+        }
+        for (int j = 0; j <= right.length(); j++) {
+            distances[0][j] = j;
+        }
+        for (int i = 1; i <= left.length(); i++) {
+            for (int j = 1; j <= right.length(); j++) {
+                int substitution = distances[i - 1][j - 1] + (left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1);
+                distances[i][j] = Math.min(substitution, Math.min(distances[i - 1][j], distances[i][j - 1]) + 1);
+            }
+        }
+        return distances[left.length()][right.length()];
+    }
+}
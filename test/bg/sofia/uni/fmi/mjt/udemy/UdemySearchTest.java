@@ -0,0 +1,247 @@
+package bg.sofia.uni.fmi.mjt.udemy;
+
+import bg.sofia.uni.fmi.mjt.udemy.account.AccountBase;
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.Resource;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.CourseDuration;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.ResourceDuration;
+import bg.sofia.uni.fmi.mjt.udemy.exception.CourseNotFoundException;
+import bg.sofia.uni.fmi.mjt.udemy.query.CourseOrder;
+import bg.sofia.uni.fmi.mjt.udemy.query.CoursePage;
+import bg.sofia.uni.fmi.mjt.udemy.query.CourseQuery;
+import bg.sofia.uni.fmi.mjt.udemy.query.PageCursor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UdemySearchTest {
+    private static final String[] WORDS = {"java", "go", "rust", "art", "music", "design", "jazz"};
+    private static final String[] KEYWORDS = {"us", "music", "jazz", "a", "rt", "design", "zz", "xyz"};
+
+    @Test
+    void allMatchesTheWholeCatalogInOnePage() {
+        Course[] courses = new Course[50];
+        for (int i = 0; i < courses.length; i++) {
+            courses[i] = course("course-" + i, (i * 7) % 13, Category.values()[i % Category.values().length]);
+        }
+        Udemy udemy = new Udemy(new AccountBase[0], courses);
+
+        CoursePage page = udemy.search(CourseQuery.all());
+
+        assertArrayEquals(byPrice(courses), page.courses());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void allLeavesOutRemovedCourses() throws CourseNotFoundException {
+        Course[] courses = {
+            course("first", 3, Category.MUSIC), course("second", 1, Category.DESIGN), course("third", 2, Category.MUSIC)
+        };
+        Udemy udemy = new Udemy(new AccountBase[0], courses);
+
+        udemy.removeCourse("second");
+
+        assertArrayEquals(new Course[] {courses[2], courses[0]},
+            udemy.search(CourseQuery.all().withOrder(CourseOrder.PRICE)).courses());
+    }
+
+    @Test
+    void onlyUnboundedPriceRangesMatchNaNPrices() {
+        for (int parallelThreshold : new int[] {Udemy.NEVER_PARALLEL, 1}) {
+            Course[] courses = new Course[400];
+            for (int i = 0; i < courses.length; i++) {
+                double price = i % 3 == 0 ? Double.NaN : i % 50;
+                courses[i] = course("course-" + i, price, i % 7 == 0 ? null : Category.values()[i % 4]);
+            }
+            Udemy udemy = new Udemy(new AccountBase[0], courses);
+            udemy.setParallelThreshold(parallelThreshold);
+
+            CourseQuery[] unbounded = {
+                CourseQuery.all(),
+                CourseQuery.all().withPriceBetween(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY),
+                CourseQuery.all().withKeyword("course").withOrder(CourseOrder.NAME),
+                CourseQuery.all().withCategories(Category.DEVELOPMENT).withMaxDuration(new CourseDuration(0, 30)),
+            };
+            for (CourseQuery query : unbounded) {
+                assertEquals(matching(courses, query), List.of(udemy.search(query).courses()), query.toString());
+            }
+
+            CourseQuery[] bounded = {
+                CourseQuery.all().withPriceBetween(0, Double.POSITIVE_INFINITY),
+                CourseQuery.all().withPriceBetween(Double.NEGATIVE_INFINITY, 10),
+                CourseQuery.all().withKeyword("course").withPriceBetween(5, 6),
+                CourseQuery.all().withCategories(Category.MUSIC).withPriceBetween(0, 1000),
+            };
+            for (CourseQuery query : bounded) {
+                List<Course> found = List.of(udemy.search(query).courses());
+                assertTrue(found.stream().noneMatch(course -> Double.isNaN(course.getPrice())), query.toString());
+                assertEquals(matching(courses, query), found, query.toString());
+            }
+        }
+    }
+
+    @Test
+    void searchPagesMatchABruteForceFilter() throws CourseNotFoundException {
+        for (int parallelThreshold : new int[] {Udemy.NEVER_PARALLEL, 1}) {
+            Random random = new Random(11);
+            Course[] courses = new Course[5000];
+            for (int i = 0; i < courses.length; i++) {
+                Category category = random.nextInt(50) == 0 ? null : Category.values()[random.nextInt(8)];
+                courses[i] = course(random, "N" + i, random.nextInt(200) / 2.0, category);
+            }
+            Udemy udemy = new Udemy(new AccountBase[0], courses);
+            udemy.setParallelThreshold(parallelThreshold);
+            for (int i = 0; i < 100; i++) {
+                int id = random.nextInt(courses.length);
+                if (courses[id] != null) {
+                    udemy.removeCourse(courses[id].getName());
+                    courses[id] = null;
+                }
+            }
+
+            for (int t = 0; t < 200; t++) {
+                CourseQuery query = randomQuery(random);
+                List<Course> expected = matching(courses, query);
+
+                List<Course> found = new ArrayList<>();
+                CourseQuery page = query.withLimit(Math.max(1 + random.nextInt(60), expected.size() / 8));
+                while (true) {
+                    CoursePage result = udemy.search(page);
+                    assertTrue(result.courses().length <= page.limit());
+                    found.addAll(Arrays.asList(result.courses()));
+                    if (!result.hasNext()) {
+                        break;
+                    }
+                    page = page.withCursor(result.next());
+                }
+
+                assertEquals(expected, found, query.toString());
+            }
+        }
+    }
+
+    @Test
+    void pagedLookupsMatchABruteForceSort() {
+        Random random = new Random(5);
+        Course[] courses = new Course[2000];
+        for (int i = 0; i < courses.length; i++) {
+            courses[i] = course(random, "N" + random.nextInt(500), random.nextInt(10),
+                Category.values()[random.nextInt(3)]);
+        }
+        Udemy udemy = new Udemy(new AccountBase[0], courses);
+
+        for (CourseOrder order : CourseOrder.values()) {
+            for (int limit : new int[] {1, 7, 5000}) {
+                for (Category category : new Category[] {Category.DEVELOPMENT, Category.MUSIC}) {
+                    List<Course> expected = sorted(courses, order, IntStream.range(0, courses.length)
+                        .filter(id -> courses[id].getCategory() == category));
+                    List<Course> found = new ArrayList<>();
+                    PageCursor cursor = null;
+                    do {
+                        CoursePage page = udemy.getAllCoursesByCategory(category, order, limit, cursor);
+                        found.addAll(Arrays.asList(page.courses()));
+                        cursor = page.next();
+                    } while (cursor != null);
+                    assertEquals(expected, found);
+                }
+
+                for (String keyword : KEYWORDS) {
+                    List<Course> expected = sorted(courses, order, IntStream.range(0, courses.length)
+                        .filter(id -> courses[id].getName().contains(keyword)
+                            || courses[id].getDescription().contains(keyword)));
+                    List<Course> found = new ArrayList<>();
+                    PageCursor cursor = null;
+                    do {
+                        CoursePage page = udemy.findByKeyword(keyword, order, limit, cursor);
+                        found.addAll(Arrays.asList(page.courses()));
+                        cursor = page.next();
+                    } while (cursor != null);
+                    assertEquals(expected, found);
+                }
+            }
+        }
+    }
+
+    private static CourseQuery randomQuery(Random random) {
+        CourseQuery query = CourseQuery.all();
+        if (random.nextInt(3) > 0) {
+            query = query.withKeyword(KEYWORDS[random.nextInt(KEYWORDS.length)]);
+        }
+        if (random.nextBoolean()) {
+            Category[] categories = new Category[1 + random.nextInt(3)];
+            for (int i = 0; i < categories.length; i++) {
+                categories[i] = Category.values()[random.nextInt(8)];
+            }
+            query = query.withCategories(categories);
+        }
+        if (random.nextBoolean()) {
+            double minPrice = random.nextInt(100);
+            query = query.withPriceBetween(minPrice, minPrice + random.nextInt(random.nextBoolean() ? 5 : 100));
+        }
+        if (random.nextBoolean()) {
+            int minutes = random.nextInt(300);
+            CourseDuration shortest = new CourseDuration(0, minutes % 60);
+            CourseDuration longest = new CourseDuration(minutes / 60, minutes % 60);
+            query = random.nextBoolean() ? query.withMaxDuration(longest)
+                : query.withDurationBetween(shortest, new CourseDuration(minutes / 60 + 1, 0));
+        }
+        return query.withOrder(CourseOrder.values()[random.nextInt(CourseOrder.values().length)]);
+    }
+
+    /**
+     * Returns the live courses matching the query, in its order, without paging.
+     */
+    private static List<Course> matching(Course[] courses, CourseQuery query) {
+        return sorted(courses, query.order(), IntStream.range(0, courses.length)
+            .filter(id -> courses[id] != null && matches(query, courses[id])));
+    }
+
+    private static boolean matches(CourseQuery query, Course course) {
+        String keyword = query.keyword();
+        int minutes = course.getTotalTime().toMinutes();
+        return (keyword == null || course.getName().contains(keyword) || course.getDescription().contains(keyword))
+            && (query.categories().isEmpty() || query.categories().contains(course.getCategory()))
+            && (!query.hasPriceRange()
+                || course.getPrice() >= query.minPrice() && course.getPrice() <= query.maxPrice())
+            && minutes >= query.minMinutes() && minutes <= query.maxMinutes();
+    }
+
+    private static List<Course> sorted(Course[] courses, CourseOrder order, IntStream ids) {
+        return ids.boxed()
+            .sorted((left, right) -> order.compare(left, courses[left], right, courses[right]))
+            .map(id -> courses[id])
+            .toList();
+    }
+
+    private static Course[] byPrice(Course[] courses) {
+        Integer[] ids = new Integer[courses.length];
+        Arrays.setAll(ids, i -> i);
+        Arrays.sort(ids, Comparator.comparingDouble((Integer id) -> courses[id].getPrice()).thenComparingInt(id -> id));
+        return Arrays.stream(ids).map(id -> courses[id]).toArray(Course[]::new);
+    }
+
+    private static Course course(Random random, String name, double price, Category category) {
+        Resource[] content = new Resource[random.nextInt(6)];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = new Resource("r" + i, new ResourceDuration(random.nextInt(60)));
+        }
+        String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+        return new Course(name, description, price, content, category);
+    }
+
+    private static Course course(String name, double price, Category category) {
+        Resource[] content = {new Resource("lecture", new ResourceDuration(15))};
+        return new Course(name, "about " + name, price, content, category);
+    }
+}
@@ -0,0 +1,206 @@
+package bg.sofia.uni.fmi.mjt.udemy.account;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.Resource;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.ResourceDuration;
+import bg.sofia.uni.fmi.mjt.udemy.exception.CourseAlreadyPurchasedException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.InsufficientBalanceException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.MaxCourseCapacityReachedException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hammers one account from hundreds of threads released at once and checks that the outcome equals some
+ * sequential order of the same operations: no course is bought twice, no purchase overdraws the balance and
+ * every successful purchase and top-up is reflected in the final balance exactly once.
+ */
+class AccountBaseConcurrencyTest {
+    private static final int THREADS = 300;
+
+    @Test
+    void concurrentPurchasesOfOneCourseSucceedOnce() throws Exception {
+        AccountBase account = new StandartAccount("buyer", 1000);
+        Course course = course(0, 30);
+        AtomicInteger purchased = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(THREADS, thread -> {
+            try {
+                account.buyCourse(course);
+                purchased.incrementAndGet();
+            } catch (CourseAlreadyPurchasedException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, purchased.get());
+        assertEquals(THREADS - 1, rejected.get());
+        assertEquals(970.0, account.getBalance());
+        assertEquals(1, ownedCount(account, new Course[] {course}));
+    }
+
+    @Test
+    void concurrentPurchasesNeverOverdrawTheBalance() throws Exception {
+        int affordable = 100;
+        // Room for every course, so only the balance can reject a purchase.
+        AccountBase account = new StandartAccount("buyer", affordable, THREADS);
+        Course[] courses = courses(THREADS, 1);
+        AtomicInteger purchased = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(THREADS, thread -> {
+            try {
+                account.buyCourse(courses[thread]);
+                purchased.incrementAndGet();
+            } catch (InsufficientBalanceException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(affordable, purchased.get());
+        assertEquals(THREADS - affordable, rejected.get());
+        assertEquals(0.0, account.getBalance());
+        assertEquals(affordable, ownedCount(account, courses));
+    }
+
+    @Test
+    void concurrentTopUpsAndPurchasesAreLinearizable() throws Exception {
+        int topUpsPerThread = 20;
+        AccountBase account = new StandartAccount("buyer", 10);
+        Course[] courses = courses(THREADS, 3);
+        AtomicInteger purchased = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<Double> observedNegative = new ConcurrentLinkedQueue<>();
+
+        Thread observer = new Thread(() -> {
+            while (running.get()) {
+                double balance = account.getBalance();
+                if (balance < 0) {
+                    observedNegative.add(balance);
+                }
+            }
+        });
+        observer.start();
+
+        runConcurrently(THREADS, thread -> {
+            if (thread % 2 == 0) {
+                for (int i = 0; i < topUpsPerThread; i++) {
+                    account.addToBalance(1);
+                }
+            } else {
+                try {
+                    account.buyCourse(courses[thread]);
+                    purchased.incrementAndGet();
+                } catch (InsufficientBalanceException | MaxCourseCapacityReachedException e) {
+                    // Lost the race for the balance or the capacity; any interleaving may reject some purchases.
+                }
+            }
+        });
+
+        running.set(false);
+        observer.join();
+
+        double toppedUp = (double) (THREADS / 2) * topUpsPerThread;
+        assertTrue(observedNegative.isEmpty(), "Balance went negative: " + observedNegative);
+        assertEquals(10 + toppedUp - 3.0 * purchased.get(), account.getBalance());
+        assertEquals(purchased.get(), ownedCount(account, courses));
+    }
+
+    @Test
+    void concurrentCartsDoNotShareCourses() throws Exception {
+        // 99 carts of two over 100 courses: even if every cart succeeded, the account would stay within capacity.
+        int carts = 99;
+        AccountBase account = new StandartAccount("buyer", 10_000);
+        Course[] courses = courses(carts + 1, 2);
+        AtomicInteger purchasedCarts = new AtomicInteger();
+
+        // Neighbouring carts overlap in one course, so at most one of every two overlapping carts can succeed.
+        runConcurrently(carts, thread -> {
+            try {
+                account.buyCourses(new Course[] {courses[thread], courses[thread + 1]});
+                purchasedCarts.incrementAndGet();
+            } catch (CourseAlreadyPurchasedException e) {
+                // An overlapping cart won.
+            }
+        });
+
+        assertEquals(10_000 - 4.0 * purchasedCarts.get(), account.getBalance());
+        assertTrue(purchasedCarts.get() >= carts / 3, "Too few carts succeeded: " + purchasedCarts.get());
+        assertEquals(2 * purchasedCarts.get(), ownedCount(account, courses));
+    }
+
+    private interface ThreadBody {
+        void run(int thread) throws Exception;
+    }
+
+    private static void runConcurrently(int threads, ThreadBody body) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Thread> workers = new ArrayList<>();
+
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    body.run(thread);
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertTrue(failures.isEmpty(), "Unexpected failures: " + failures);
+    }
+
+    /**
+     * Counts the courses the account owns: buying one of them again is rejected as already purchased. The probe
+     * tops the account up and buys the courses it does not own yet, so it must come after the other checks.
+     */
+    private static int ownedCount(AccountBase account, Course[] courses) throws InsufficientBalanceException {
+        account.addToBalance(1_000_000);
+        int owned = 0;
+        for (Course course : courses) {
+            try {
+                account.buyCourse(course);
+            } catch (CourseAlreadyPurchasedException e) {
+                owned++;
+            } catch (MaxCourseCapacityReachedException e) {
+                // Not owned, and the account has no room left to buy it.
+            }
+        }
+
+        return owned;
+    }
+
+    private static Course[] courses(int count, double price) {
+        Course[] courses = new Course[count];
+        for (int i = 0; i < count; i++) {
+            courses[i] = course(i, price);
+        }
+
+        return courses;
+    }
+
+    private static Course course(int number, double price) {
+        Resource[] content = {new Resource("lecture", new ResourceDuration(10))};
+        return new Course("course-" + number, "description", price, content, Category.DEVELOPMENT);
+    }
+}
@@ -0,0 +1,106 @@
+package bg.sofia.uni.fmi.mjt.udemy.account;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.Resource;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.ResourceDuration;
+import bg.sofia.uni.fmi.mjt.udemy.exception.CourseAlreadyPurchasedException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.InsufficientBalanceException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountBaseTest {
+    private static final Category[] ALLOWED = {Category.BUSINESS};
+
+    @Test
+    void buyCourseChecksTheBalanceAgainstTheDiscountedPrice() throws Exception {
+        AccountBase account = new BusinessAccount("business", 80, ALLOWED);
+        Course course = course("accounting", 100);
+
+        account.buyCourse(course);
+
+        assertEquals(0.0, account.getBalance(), 1e-9);
+        assertNotNull(account.getEnrollment(course));
+    }
+
+    @Test
+    void singleCourseAndCartOfOneAreValidatedAlike() throws Exception {
+        AccountBase single = new BusinessAccount("single", 80, ALLOWED);
+        AccountBase cart = new BusinessAccount("cart", 80, ALLOWED);
+
+        single.buyCourse(course("accounting", 100));
+        cart.buyCourses(new Course[] {course("accounting", 100)});
+
+        assertEquals(single.getBalance(), cart.getBalance());
+    }
+
+    @Test
+    void buyCourseRejectsWhatTheDiscountedPriceDoesNotCover() {
+        AccountBase account = new BusinessAccount("business", 79, ALLOWED);
+        Course course = course("accounting", 100);
+
+        assertThrows(InsufficientBalanceException.class, () -> account.buyCourse(course));
+        assertThrows(InsufficientBalanceException.class, () -> account.buyCourses(new Course[] {course}));
+        assertEquals(79.0, account.getBalance());
+        assertNull(account.getEnrollment(course));
+    }
+
+    @Test
+    void repricedCopyOfAnOwnedCourseIsAlreadyPurchased() throws Exception {
+        AccountBase account = new StandartAccount("standard", 1000);
+        Course course = course("accounting", 30);
+        account.buyCourse(course);
+
+        Course repriced = course.withPrice(45);
+
+        assertThrows(CourseAlreadyPurchasedException.class, () -> account.buyCourse(repriced));
+        assertThrows(CourseAlreadyPurchasedException.class, () -> account.buyCourses(new Course[] {repriced}));
+        assertEquals(970.0, account.getBalance());
+        assertSame(account.getEnrollment(course), account.getEnrollment(repriced));
+    }
+
+    @Test
+    void cartWithTwoPricesOfOneCourseIsRejected() {
+        AccountBase account = new StandartAccount("standard", 1000);
+        Course course = course("accounting", 30);
+
+        assertThrows(CourseAlreadyPurchasedException.class,
+            () -> account.buyCourses(new Course[] {course, course.withPrice(10)}));
+        assertEquals(1000.0, account.getBalance());
+    }
+
+    @Test
+    void progressIsTrackedThroughRepricedCopies() throws Exception {
+        AccountBase account = new StandartAccount("standard", 1000);
+        Course course = course("accounting", 30);
+        account.buyCourse(course);
+        Course repriced = course.withPrice(45);
+
+        account.completeResourcesFromCourse(repriced, new Resource[] {repriced.getContent()[0]});
+        assertEquals(50, account.getEnrollment(course).getCompletionPercentage());
+
+        account.completeCourse(repriced, 5.5);
+        assertEquals(5.5, account.getEnrollment(course).getGrade());
+        assertTrue(account.getEnrollment(course).isCompleted());
+    }
+
+    @Test
+    void buyCourseRejectsNull() {
+        AccountBase account = new StandartAccount("standard", 10);
+
+        assertThrows(IllegalArgumentException.class, () -> account.buyCourse(null));
+    }
+
+    private static Course course(String name, double price) {
+        Resource[] content = {
+            new Resource("lecture", new ResourceDuration(20)), new Resource("quiz", new ResourceDuration(5))
+        };
+        return new Course(name, "about " + name, price, content, Category.BUSINESS);
+    }
+}
@@ -0,0 +1,54 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChunkedArrayTest {
+
+    @Test
+    void everyVersionKeepsItsElements() {
+        Random random = new Random(11);
+        int length = 40 * ChunkTree.CHUNK_SIZE;
+        List<ChunkedArray<Integer>> versions = new ArrayList<>();
+        List<Integer[]> oracles = new ArrayList<>();
+        ChunkedArray<Integer> array = new ChunkedArray<>();
+        Integer[] oracle = new Integer[length];
+
+        for (int version = 0; version < 50; version++) {
+            for (int change = random.nextInt(200); change >= 0; change--) {
+                int index = random.nextInt(length);
+                Integer value = random.nextInt(5) == 0 ? null : random.nextInt();
+                array.set(index, value);
+                oracle[index] = value;
+            }
+
+            versions.add(array);
+            oracles.add(Arrays.copyOf(oracle, length));
+            array = new ChunkedArray<>(array);
+        }
+
+        for (int i = 0; i < versions.size(); i++) {
+            for (int index = 0; index < length; index++) {
+                assertEquals(oracles.get(i)[index], versions.get(i).get(index));
+            }
+        }
+    }
+
+    @Test
+    void distantIndexesGrowTheTree() {
+        ChunkedArray<String> array = new ChunkedArray<>();
+
+        array.set(Integer.MAX_VALUE, "last");
+        array.set(0, "first");
+
+        assertEquals("last", array.get(Integer.MAX_VALUE));
+        assertEquals("first", array.get(0));
+        assertEquals(null, array.get(1 << 20));
+    }
+}
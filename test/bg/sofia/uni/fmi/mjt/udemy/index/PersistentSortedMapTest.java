@@ -0,0 +1,100 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PersistentSortedMapTest {
+    @Test
+    void everyVersionMatchesATreeMapOracle() {
+        Random random = new Random(7);
+        List<PersistentSortedMap<Integer, Integer>> versions = new ArrayList<>();
+        List<TreeMap<Integer, Integer>> oracles = new ArrayList<>();
+        PersistentSortedMap<Integer, Integer> map =
+            new PersistentSortedMap<>(Comparator.naturalOrder(), List.of(Comparator.naturalOrder()));
+        TreeMap<Integer, Integer> oracle = new TreeMap<>();
+
+        for (int version = 0; version < 200; version++) {
+            for (int change = random.nextInt(20); change >= 0; change--) {
+                int key = random.nextInt(500);
+                if (random.nextInt(3) == 0) {
+                    assertEquals(oracle.remove(key), map.remove(key));
+                } else {
+                    int value = random.nextInt(1000);
+                    map.put(key, value);
+                    oracle.put(key, value);
+                }
+            }
+
+            versions.add(map);
+            oracles.add(new TreeMap<>(oracle));
+            map = new PersistentSortedMap<>(map);
+        }
+
+        for (int i = 0; i < versions.size(); i++) {
+            assertSameContent(oracles.get(i), versions.get(i), random);
+        }
+    }
+
+    private static void assertSameContent(TreeMap<Integer, Integer> oracle, PersistentSortedMap<Integer, Integer> map,
+                                          Random random) {
+        assertEquals(oracle.size(), map.size());
+        assertEquals(new ArrayList<>(oracle.values()), toList(map.values()));
+        assertEquals(oracle.size(), map.count(null, true, null, true));
+        Integer[] smallest = new Integer[5];
+        int found = map.best(0, null, true, null, true, smallest);
+        assertEquals(oracle.values().stream().sorted().limit(smallest.length).toList(),
+            Arrays.asList(smallest).subList(0, found));
+
+        for (int probe = 0; probe < 50; probe++) {
+            int key = random.nextInt(520) - 10;
+            assertEquals(oracle.get(key), map.get(key));
+            assertEquals(key(oracle.floorEntry(key)), key(map.floorEntry(key)));
+            assertEquals(key(oracle.ceilingEntry(key)), key(map.ceilingEntry(key)));
+            assertEquals(key(oracle.higherEntry(key)), key(map.higherEntry(key)));
+
+            int to = key + random.nextInt(100);
+            boolean fromInclusive = random.nextBoolean();
+            boolean toInclusive = random.nextBoolean();
+            Map<Integer, Integer> range = oracle.subMap(key, fromInclusive, to, toInclusive);
+            assertEquals(new ArrayList<>(range.values()), toList(map.values(key, fromInclusive, to, toInclusive)));
+            assertEquals(range.size(), map.count(key, fromInclusive, to, toInclusive));
+
+            // The smallest values of the range, best first.
+            Integer[] page = new Integer[random.nextInt(8)];
+            int count = map.best(0, key, fromInclusive, to, toInclusive, page);
+            assertEquals(range.values().stream().sorted().limit(page.length).toList(),
+                Arrays.asList(page).subList(0, count));
+        }
+    }
+
+    @Test
+    void emptyMapHasNoEntries() {
+        PersistentSortedMap<String, String> map = new PersistentSortedMap<>(Comparator.naturalOrder());
+
+        assertNull(map.firstEntry());
+        assertNull(map.lastEntry());
+        assertNull(map.remove("missing"));
+        assertEquals(0, map.size());
+        assertEquals(List.of(), toList(map.values()));
+    }
+
+    private static Integer key(Map.Entry<Integer, Integer> entry) {
+        return entry == null ? null : entry.getKey();
+    }
+
+    private static <T> List<T> toList(Iterable<T> values) {
+        List<T> list = new ArrayList<>();
+        values.forEach(list::add);
+        return list;
+    }
+}
@@ -0,0 +1,98 @@
+package bg.sofia.uni.fmi.mjt.udemy.query;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.Resource;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.ResourceDuration;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks every page against sorting all matches, which is what paging must be equivalent to.
+ */
+class TopKTest {
+    private static final Course[] COURSES = randomCourses(new Random(7), 500);
+
+    @Test
+    void pagesMatchSortedMatchesInEveryOrder() {
+        Random random = new Random(11);
+        for (CourseOrder order : CourseOrder.values()) {
+            for (int round = 0; round < 20; round++) {
+                int[] ids = shuffledSubset(random);
+                int limit = 1 + random.nextInt(40);
+                assertArrayEquals(sorted(ids, order), pageThrough(ids, order, limit), "order " + order);
+            }
+        }
+    }
+
+    @Test
+    void unboundedLimitReturnsEveryMatchInOnePage() {
+        int[] ids = IntStream.range(0, COURSES.length).toArray();
+
+        CoursePage page = TopK.select(ids, id -> COURSES[id], CourseOrder.PRICE, Integer.MAX_VALUE, null);
+
+        assertArrayEquals(sorted(ids, CourseOrder.PRICE), page.courses());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void noMatchesGiveAnEmptyLastPage() {
+        CoursePage page = TopK.select(new int[0], id -> COURSES[id], CourseOrder.NAME, Integer.MAX_VALUE, null);
+
+        assertEquals(0, page.courses().length);
+        assertNull(page.next());
+    }
+
+    private static Course[] pageThrough(int[] ids, CourseOrder order, int limit) {
+        List<Course> all = new ArrayList<>();
+        PageCursor after = null;
+        do {
+            CoursePage page = TopK.select(ids, id -> COURSES[id], order, limit, after);
+            all.addAll(Arrays.asList(page.courses()));
+            after = page.next();
+        } while (after != null);
+
+        return all.toArray(Course[]::new);
+    }
+
+    private static Course[] sorted(int[] ids, CourseOrder order) {
+        return Arrays.stream(ids).boxed()
+            .sorted((left, right) -> order.compare(left, COURSES[left], right, COURSES[right]))
+            .map(id -> COURSES[id])
+            .toArray(Course[]::new);
+    }
+
+    private static int[] shuffledSubset(Random random) {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 0; id < COURSES.length; id++) {
+            if (random.nextInt(3) == 0) {
+                ids.add(id);
+            }
+        }
+
+        Collections.shuffle(ids, random);
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static Course[] randomCourses(Random random, int count) {
+        Course[] courses = new Course[count];
+        for (int i = 0; i < count; i++) {
+            Resource[] content = {new Resource("lecture", new ResourceDuration(random.nextInt(61)))};
+            courses[i] = new Course("course-" + random.nextInt(count), "description", random.nextInt(20), content,
+                Category.values()[random.nextInt(Category.values().length)]);
+        }
+
+        return courses;
+    }
+}
@@ -0,0 +1,160 @@
+package bg.sofia.uni.fmi.mjt.udemy.storage;
+
+import bg.sofia.uni.fmi.mjt.udemy.Udemy;
+import bg.sofia.uni.fmi.mjt.udemy.account.AccountBase;
+import bg.sofia.uni.fmi.mjt.udemy.account.StandartAccount;
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.Resource;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.ResourceDuration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AccountJournalTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void failedJournalRejectsChangesWithoutApplyingThem() throws Exception {
+        Path path = directory.resolve("journal");
+        Course owned = course("owned");
+        Course other = course("other");
+        AccountBase account = new StandartAccount("user", 100);
+        AccountJournal journal = AccountJournal.open(path);
+        account.setEventListener(journal);
+        account.buyCourse(owned);
+        journal.flush();
+
+        // The writer fails when it cannot create the compacted journal next to the original one.
+        Files.createDirectory(path.resolveSibling(path.getFileName() + ".compact"));
+        assertThrows(IOException.class, () -> journal.truncateThrough(journal.lastLsn()));
+
+        byte[] before = account.captureState();
+        assertThrows(UncheckedIOException.class, () -> account.addToBalance(10));
+        assertThrows(UncheckedIOException.class, () -> account.buyCourse(other));
+        assertThrows(UncheckedIOException.class,
+            () -> account.completeResourcesFromCourse(owned, new Resource[] {owned.getContent()[0]}));
+        assertThrows(UncheckedIOException.class, () -> account.completeCourse(owned, 5.0));
+
+        assertArrayEquals(before, account.captureState());
+        assertEquals(90.0, account.getBalance());
+        assertNull(account.getEnrollment(other));
+        assertFalse(account.getEnrollment(owned).isResourceCompleted(0));
+        assertThrows(IOException.class, journal::close);
+    }
+
+    @Test
+    void closedJournalRejectsChangesWithoutApplyingThem() throws Exception {
+        AccountBase account = new StandartAccount("user", 100);
+        AccountJournal journal = AccountJournal.open(directory.resolve("journal"));
+        account.setEventListener(journal);
+        journal.close();
+
+        assertThrows(IllegalStateException.class, () -> account.addToBalance(10));
+        assertThrows(IllegalStateException.class, () -> account.buyCourse(course("course")));
+
+        assertEquals(100.0, account.getBalance());
+        assertNull(account.getEnrollment(course("course")));
+    }
+
+    @Test
+    void numberingContinuesAfterTruncatingEverything() throws Exception {
+        Path path = directory.resolve("journal");
+        AccountBase account = new StandartAccount("user", 0);
+        try (AccountJournal journal = AccountJournal.open(path)) {
+            account.setEventListener(journal);
+            account.addToBalance(5);
+            account.addToBalance(100);
+            journal.flush();
+            journal.truncateThrough(journal.lastLsn());
+            assertEquals(2, journal.lastLsn());
+        }
+
+        try (AccountJournal reopened = AccountJournal.open(path)) {
+            assertEquals(2, reopened.lastLsn());
+            account.setEventListener(reopened);
+            account.addToBalance(1);
+            reopened.flush();
+            assertEquals(3, reopened.lastLsn());
+        }
+
+        List<AccountEvent> events = new ArrayList<>();
+        AccountJournal.read(path, 0, events::add);
+        assertEquals(1, events.size());
+        assertEquals(3, events.get(0).lsn());
+    }
+
+    @Test
+    void replayRestoresPlatformChangesAndAddedAccounts() throws Exception {
+        Path path = directory.resolve("journal");
+        Udemy live = new Udemy(new AccountBase[0], new Course[] {course("first")});
+        try (AccountJournal journal = AccountJournal.open(path)) {
+            live.setEventListener(journal);
+            live.addCourses(new Course[] {course("second"), course("third")});
+            AccountBase account = new StandartAccount("user", 100);
+            live.addAccount(account);
+            account.setEventListener(journal);
+            account.buyCourse(live.findByName("second"));
+            live.updatePrice("third", 2);
+            account.buyCourse(live.findByName("third"));
+            account.completeResourcesFromCourse(live.findByName("second"),
+                new Resource[] {live.findByName("second").getContent()[1]});
+            live.removeCourse("second");
+        }
+
+        Udemy replayed = new Udemy(new AccountBase[0], new Course[] {course("first")});
+        AccountJournal.replay(path, replayed);
+
+        assertArrayEquals(names(live.getAllCourses()), names(replayed.getAllCourses()));
+        assertEquals(2.0, replayed.findByName("third").getPrice());
+        assertArrayEquals(live.getAccount("user").captureState(), replayed.getAccount("user").captureState());
+    }
+
+    @Test
+    void replayOfRandomChangesRestoresTheLivePlatform() throws Exception {
+        Path path = directory.resolve("journal");
+        Random random = new Random(3);
+        Course[] initial = new Course[10];
+        for (int i = 0; i < initial.length; i++) {
+            initial[i] = RandomWorkload.course("course-" + i, random);
+        }
+        Udemy live = new Udemy(new AccountBase[0], initial);
+
+        try (AccountJournal journal = AccountJournal.open(path)) {
+            new RandomWorkload(live, journal, 3).run(3000);
+        }
+
+        Udemy replayed = new Udemy(new AccountBase[0], initial);
+        AccountJournal.replay(path, replayed);
+        RandomWorkload.assertSameState(live, replayed);
+    }
+
+    private static String[] names(Course[] courses) {
+        String[] names = new String[courses.length];
+        for (int i = 0; i < courses.length; i++) {
+            names[i] = courses[i].getName();
+        }
+        return names;
+    }
+
+    private static Course course(String name) {
+        Resource[] content = {
+            new Resource("first", new ResourceDuration(10)), new Resource("second", new ResourceDuration(20))
+        };
+        return new Course(name, "about " + name, 10, content, Category.DEVELOPMENT);
+    }
+}
@@ -0,0 +1,66 @@
+package bg.sofia.uni.fmi.mjt.udemy.storage;
+
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.Resource;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.ResourceDuration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CatalogFileTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void mappedCoursesReadBackWhatWasWritten() throws IOException {
+        Random random = new Random(3);
+        Course[] courses = new Course[300];
+        for (int i = 0; i < courses.length; i++) {
+            Resource[] content = new Resource[random.nextInt(5)];
+            for (int j = 0; j < content.length; j++) {
+                content[j] = new Resource("lecture-\u00e9-" + j, new ResourceDuration(random.nextInt(61)));
+            }
+
+            Category category = random.nextInt(5) == 0 ? null : Category.values()[random.nextInt(8)];
+            courses[i] = new Course("course-" + i, "description " + random.nextInt(), random.nextInt(1000) / 10.0,
+                content, category);
+        }
+
+        Path file = directory.resolve("catalog.bin");
+        CatalogFile.write(file, courses);
+        MappedCatalog mapped = MappedCatalog.open(file);
+
+        assertEquals(courses.length, mapped.size());
+        for (int id = 0; id < courses.length; id++) {
+            Course expected = courses[id];
+            Course actual = mapped.get(id);
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getPrice(), actual.getPrice());
+            assertEquals(expected.getCategory(), actual.getCategory());
+            assertEquals(expected.getTotalTime(), actual.getTotalTime());
+            assertEquals(expected.getContent().length, actual.getContent().length);
+            for (int j = 0; j < expected.getContent().length; j++) {
+                assertEquals(expected.getContent()[j].getName(), actual.getContent()[j].getName());
+                assertEquals(expected.getContent()[j].getDuration(), actual.getContent()[j].getDuration());
+            }
+        }
+    }
+
+    @Test
+    void uncategorizedCoursesKeepNoCategory() throws IOException {
+        Resource[] content = {new Resource("intro", new ResourceDuration(5))};
+        Path file = directory.resolve("catalog.bin");
+
+        CatalogFile.write(file, new Course[] {new Course("misc", "no category", 1.0, content, null)});
+
+        assertNull(MappedCatalog.open(file).get(0).getCategory());
+    }
+}
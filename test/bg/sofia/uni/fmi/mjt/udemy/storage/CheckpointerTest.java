@@ -0,0 +1,130 @@
+package bg.sofia.uni.fmi.mjt.udemy.storage;
+
+import bg.sofia.uni.fmi.mjt.udemy.Udemy;
+import bg.sofia.uni.fmi.mjt.udemy.account.AccountBase;
+import bg.sofia.uni.fmi.mjt.udemy.account.StandartAccount;
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.Resource;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.ResourceDuration;
+import bg.sofia.uni.fmi.mjt.udemy.exception.CourseNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CheckpointerTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void eventsAfterARestartSurviveTheNextRecovery() throws Exception {
+        Path journalPath = directory.resolve("journal");
+        Path checkpoints = directory.resolve("checkpoints");
+        AccountBase account = new StandartAccount("user", 0);
+        Udemy platform = new Udemy(new AccountBase[] {account}, new Course[0]);
+
+        try (AccountJournal journal = AccountJournal.open(journalPath);
+             Checkpointer checkpointer = new Checkpointer(checkpoints, platform, journal)) {
+            account.setEventListener(journal);
+            account.addToBalance(5);
+            journal.flush();
+            checkpointer.checkpoint();
+        }
+
+        try (AccountJournal journal = AccountJournal.open(journalPath)) {
+            account.setEventListener(journal);
+            account.addToBalance(100);
+            journal.flush();
+        }
+
+        Udemy recovered = Checkpointer.recover(checkpoints, journalPath);
+        assertEquals(105.0, recovered.getAccount("user").getBalance());
+    }
+
+    @Test
+    void recoverRestoresCatalogChangesAndAccountsAddedAfterTheCheckpoint() throws Exception {
+        Path journalPath = directory.resolve("journal");
+        Path checkpoints = directory.resolve("checkpoints");
+        AccountBase owner = new StandartAccount("owner", 100);
+        Udemy platform = new Udemy(new AccountBase[] {owner}, new Course[] {course("kept"), course("retired")});
+
+        try (AccountJournal journal = AccountJournal.open(journalPath);
+             Checkpointer checkpointer = new Checkpointer(checkpoints, platform, journal)) {
+            platform.setEventListener(journal);
+            owner.setEventListener(journal);
+            owner.buyCourse(platform.findByName("retired"));
+            platform.removeCourse("retired");
+            platform.updatePrice("kept", 7);
+            checkpointer.checkpoint();
+
+            platform.addCourse(course("added"));
+            AccountBase late = new StandartAccount("late", 50);
+            platform.addAccount(late);
+            late.setEventListener(journal);
+            late.buyCourse(platform.findByName("added"));
+            owner.completeResourcesFromCourse(owner.getOwnedCourses()[0],
+                new Resource[] {owner.getOwnedCourses()[0].getContent()[0]});
+            journal.flush();
+        }
+
+        Udemy recovered = Checkpointer.recover(checkpoints, journalPath);
+
+        assertThrows(CourseNotFoundException.class, () -> recovered.findByName("retired"));
+        assertEquals(7.0, recovered.findByName("kept").getPrice());
+        assertNotNull(recovered.findByName("added"));
+        assertArrayEquals(owner.captureState(), recovered.getAccount("owner").captureState());
+        assertArrayEquals(platform.getAccount("late").captureState(), recovered.getAccount("late").captureState());
+    }
+
+    @Test
+    void recoveryAfterRandomChangesMatchesTheLivePlatform() throws Exception {
+        Path journalPath = directory.resolve("journal");
+        Path checkpoints = directory.resolve("checkpoints");
+        Random random = new Random(5);
+        Course[] courses = new Course[10];
+        for (int i = 0; i < courses.length; i++) {
+            courses[i] = RandomWorkload.course("course-" + i, random);
+        }
+        AccountBase[] accounts = new AccountBase[3];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = RandomWorkload.account("member-" + i, random);
+        }
+        Udemy platform = new Udemy(accounts, courses);
+
+        try (AccountJournal journal = AccountJournal.open(journalPath)) {
+            RandomWorkload workload = new RandomWorkload(platform, journal, 5);
+            Checkpointer checkpointer = new Checkpointer(checkpoints, platform, journal);
+            try (checkpointer) {
+                for (int round = 0; round < 3; round++) {
+                    workload.run(500);
+                    checkpointer.checkpoint();
+                }
+
+                // Background checkpoints capture the platform while it keeps changing.
+                checkpointer.start(Duration.ofMillis(1));
+                workload.run(3000);
+            }
+
+            assertNull(checkpointer.getLastFailure());
+            journal.flush();
+        }
+
+        RandomWorkload.assertSameState(platform, Checkpointer.recover(checkpoints, journalPath));
+    }
+
+    private static Course course(String name) {
+        Resource[] content = {
+            new Resource("first", new ResourceDuration(10)), new Resource("second", new ResourceDuration(20))
+        };
+        return new Course(name, "about " + name, 10, content, Category.DEVELOPMENT);
+    }
+}
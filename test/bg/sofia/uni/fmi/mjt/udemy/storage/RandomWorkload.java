@@ -0,0 +1,146 @@
+package bg.sofia.uni.fmi.mjt.udemy.storage;
+
+import bg.sofia.uni.fmi.mjt.udemy.Udemy;
+import bg.sofia.uni.fmi.mjt.udemy.account.AccountBase;
+import bg.sofia.uni.fmi.mjt.udemy.account.BusinessAccount;
+import bg.sofia.uni.fmi.mjt.udemy.account.EducationalAccount;
+import bg.sofia.uni.fmi.mjt.udemy.account.StandartAccount;
+import bg.sofia.uni.fmi.mjt.udemy.course.Category;
+import bg.sofia.uni.fmi.mjt.udemy.course.Course;
+import bg.sofia.uni.fmi.mjt.udemy.course.Resource;
+import bg.sofia.uni.fmi.mjt.udemy.course.duration.ResourceDuration;
+import bg.sofia.uni.fmi.mjt.udemy.exception.AccountNotFoundException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.CourseAlreadyPurchasedException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.CourseNotCompletedException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.CourseNotFoundException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.CourseNotPurchasedException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.InsufficientBalanceException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.MaxCourseCapacityReachedException;
+import bg.sofia.uni.fmi.mjt.udemy.exception.ResourceNotFoundException;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Random changes to a platform and its accounts, all recorded by a journal. The live platform is the oracle:
+ * whatever restores it from the journal or a checkpoint must end up with the same courses and account states.
+ * Changes the platform rejects, such as buying a course twice, are part of the workload and are not recorded.
+ */
+final class RandomWorkload {
+    private static final Category[] CATEGORIES = Category.values();
+
+    private final Udemy platform;
+    private final AccountJournal journal;
+    private final Random random;
+    private int courses;
+    private int accounts;
+
+    RandomWorkload(Udemy platform, AccountJournal journal, long seed) {
+        this.platform = platform;
+        this.journal = journal;
+        this.random = new Random(seed);
+        this.courses = platform.getAllCourses().length;
+        this.accounts = platform.getAllAccounts().length;
+        platform.setEventListener(journal);
+        for (AccountBase account : platform.getAllAccounts()) {
+            account.setEventListener(journal);
+        }
+    }
+
+    void run(int steps) throws CourseNotFoundException, AccountNotFoundException {
+        for (int i = 0; i < steps; i++) {
+            step();
+        }
+    }
+
+    private void step() throws CourseNotFoundException, AccountNotFoundException {
+        Course[] catalog = platform.getAllCourses();
+        AccountBase[] members = platform.getAllAccounts();
+        int operation = random.nextInt(9);
+
+        if (operation == 0 || catalog.length == 0) {
+            Course[] batch = new Course[1 + random.nextInt(3)];
+            for (int i = 0; i < batch.length; i++) {
+                batch[i] = course("course-" + courses++, random);
+            }
+            platform.addCourses(batch);
+        } else if (operation == 1) {
+            platform.removeCourse(catalog[random.nextInt(catalog.length)].getName());
+        } else if (operation == 2) {
+            platform.updatePrice(catalog[random.nextInt(catalog.length)].getName(), random.nextInt(40));
+        } else if (operation == 3 || members.length == 0) {
+            AccountBase account = account("account-" + accounts++, random);
+            platform.addAccount(account);
+            account.setEventListener(journal);
+        } else {
+            AccountBase account = platform.getAccount(members[random.nextInt(members.length)].getUsername());
+            changeAccount(account, catalog, operation);
+        }
+    }
+
+    private void changeAccount(AccountBase account, Course[] catalog, int operation) {
+        Course[] owned = account.getOwnedCourses();
+        try {
+            if (operation == 4) {
+                account.addToBalance(random.nextInt(50));
+            } else if (operation == 5) {
+                account.buyCourse(catalog[random.nextInt(catalog.length)]);
+            } else if (operation == 6) {
+                account.buyCourses(new Course[] {
+                    catalog[random.nextInt(catalog.length)], catalog[random.nextInt(catalog.length)]
+                });
+            } else if (owned.length > 0 && operation == 7) {
+                Course course = owned[random.nextInt(owned.length)];
+                Resource[] content = course.getContent();
+                account.completeResourcesFromCourse(course, new Resource[] {content[random.nextInt(content.length)]});
+            } else if (owned.length > 0) {
+                account.completeCourse(owned[random.nextInt(owned.length)], 2 + random.nextInt(5));
+            }
+        } catch (InsufficientBalanceException | CourseAlreadyPurchasedException | MaxCourseCapacityReachedException
+                 | CourseNotPurchasedException | CourseNotCompletedException | ResourceNotFoundException
+                 | IllegalArgumentException e) {
+            // Rejected changes leave the account as it was, and the journal without an event.
+        }
+    }
+
+    /**
+     * Asserts that the restored platform has the courses, in catalog order, and the accounts of the live one.
+     */
+    static void assertSameState(Udemy live, Udemy restored) throws AccountNotFoundException {
+        assertArrayEquals(describe(live.getAllCourses()), describe(restored.getAllCourses()));
+        AccountBase[] accounts = live.getAllAccounts();
+        assertEquals(accounts.length, restored.getAllAccounts().length);
+        for (AccountBase account : accounts) {
+            assertArrayEquals(account.captureState(), restored.getAccount(account.getUsername()).captureState(),
+                account.getUsername());
+        }
+    }
+
+    private static String[] describe(Course[] courses) {
+        return Arrays.stream(courses)
+            .map(course -> "%s %s %s".formatted(course.getName(), course.getPrice(), course.getCategory()))
+            .toArray(String[]::new);
+    }
+
+    static Course course(String name, Random random) {
+        Resource[] content = new Resource[1 + random.nextInt(3)];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = new Resource("r" + i, new ResourceDuration(5 + random.nextInt(30)));
+        }
+        return new Course(name, "about " + name, random.nextInt(40), content,
+            CATEGORIES[random.nextInt(CATEGORIES.length)]);
+    }
+
+    static AccountBase account(String username, Random random) {
+        double balance = random.nextInt(100);
+        return switch (random.nextInt(3)) {
+            case 0 -> new StandartAccount(username, balance);
+            case 1 -> new EducationalAccount(username, balance);
+            default -> new BusinessAccount(username, balance,
+                new Category[] {CATEGORIES[random.nextInt(CATEGORIES.length)], Category.DEVELOPMENT});
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package bg.sofia.uni.fmi.mjt.udemy.index;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Filters the course columns eight ids at a time with the incubating Vector API.
+ * The category bytes of a block are compared in one 64-bit vector and the prices and durations in vectors of the
+ * preferred width, each lane applying the same comparisons as {@link ScalarColumnScan}; an unbounded price range
+ * skips the price comparisons. Durations are widened to doubles, which represent every int exactly, so that all
+ * range masks share one species. A block without any course in the wanted categories skips the range comparisons.
+ * The lane masks are combined into a bit set from which the matching ids are written in ascending order; the ids
+ * after the last full block are filtered by the scalar loop. Loaded by {@link ColumnScan#load()} only.
+ */
+final class VectorColumnScan implements ColumnScan {
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_64;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = intsPerDoubles();
+    private static final int BLOCK = BYTES.length();
+
+    VectorColumnScan() {
+        if (INTS == null) {
+            throw new UnsupportedOperationException(
+                "Unsupported vector shape %s.".formatted(DOUBLES.vectorShape()));
+        }
+    }
+
+    private static VectorSpecies<Integer> intsPerDoubles() {
+        if (DOUBLES.length() < 2 || BYTES.length() % DOUBLES.length() != 0) {
+            return null;
+        }
+
+        return VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.length() * Integer.SIZE));
+    }
+
+    @Override
+    public int scan(double[] prices, int[] minutes, byte[] categories, int size, int categoryMask, double minPrice,
+                    double maxPrice, int minMinutes, int maxMinutes, int[] matching) {
+        boolean anyPrice = CourseColumns.isUnbounded(minPrice, maxPrice);
+        int count = 0;
+        int bound = BYTES.loopBound(size);
+
+        for (int id = 0; id < bound; id += BLOCK) {
+            VectorMask<Byte> wanted = categoryLanes(ByteVector.fromArray(BYTES, categories, id), categoryMask);
+            if (!wanted.anyTrue()) {
+                continue;
+            }
+
+            long inRanges = 0;
+            for (int lane = 0; lane < BLOCK; lane += DOUBLES.length()) {
+                DoubleVector price = DoubleVector.fromArray(DOUBLES, prices, id + lane);
+                DoubleVector duration = IntVector.fromArray(INTS, minutes, id + lane)
+                    .convertShape(VectorOperators.I2D, DOUBLES, 0).reinterpretAsDoubles();
+
+                VectorMask<Double> matches = duration.compare(VectorOperators.GE, minMinutes)
+                    .and(duration.compare(VectorOperators.LE, maxMinutes));
+                if (!anyPrice) {
+                    matches = matches.and(price.compare(VectorOperators.GE, minPrice))
+                        .and(price.compare(VectorOperators.LE, maxPrice));
+                }
+                if (matches.anyTrue()) {
+                    inRanges |= matches.toLong() << lane;
+                }
+            }
+
+            if (inRanges == 0) {
+                continue;
+            }
+
+            for (long bits = wanted.toLong() & inRanges; bits != 0; bits &= bits - 1) {
+                matching[count++] = id + Long.numberOfTrailingZeros(bits);
+            }
+        }
+
+        return ScalarColumnScan.scan(prices, minutes, categories, bound, size, categoryMask, minPrice, maxPrice,
+            minMinutes, maxMinutes, matching, count);
+    }
+
+    private static VectorMask<Byte> categoryLanes(ByteVector categories, int categoryMask) {
+        if (categoryMask == 0) {
+            return categories.compare(VectorOperators.NE, CourseColumns.NO_COURSE);
+        }
+
+        VectorMask<Byte> wanted = BYTES.maskAll(false);
+        for (int mask = categoryMask; mask != 0; mask &= mask - 1) {
+            wanted = wanted.or(categories.compare(VectorOperators.EQ, (byte) Integer.numberOfTrailingZeros(mask)));
+        }
+
+        return wanted;
+    }
+
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+}